@@ -0,0 +1,138 @@
+package com.mockcontroller.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.util.JsonDigest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Детерминированные данные для бенчмарков: одинаковые конфиги на каждом запуске,
+ * чтобы результаты разных сборок можно было сравнивать между собой.
+ */
+final class BenchmarkFixtures {
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    static final String SYSTEM_NAME = "payments-gateway-mock";
+    // Фиксированное время, чтобы состояние не зависело от момента запуска
+    static final Instant UPDATED_AT = Instant.parse("2024-12-20T10:15:30Z");
+
+    private BenchmarkFixtures() {
+        // Утилитный класс - запрещаем создание экземпляров
+    }
+
+    /**
+     * Конфиг заглушки с заданным общим числом параметров,
+     * равномерно распределенных по delays, stringParams, intParams и booleanVariables
+     */
+    static ObjectNode config(int params) {
+        ObjectNode config = OBJECT_MAPPER.createObjectNode();
+        ObjectNode delays = config.putObject("delays");
+        ObjectNode stringParams = config.putObject("stringParams");
+        ObjectNode intParams = config.putObject("intParams");
+        ObjectNode booleanVariables = config.putObject("booleanVariables");
+        for (int i = 0; i < params; i++) {
+            switch (i % 4) {
+                case 0:
+                    delays.put("delay_" + i, (i * 37) % 5000);
+                    break;
+                case 1:
+                    stringParams.put("param_" + i, "value-" + i + "-" + Integer.toHexString(i * 31));
+                    break;
+                case 2:
+                    intParams.put("int_" + i, i * 7);
+                    break;
+                default:
+                    booleanVariables.put("flag_" + i, i % 8 == 3);
+                    break;
+            }
+        }
+        config.put("loggingLv", "INFO");
+        return config;
+    }
+
+    static StoredConfigEntity storedEntity(String systemName, JsonNode startConfig, JsonNode currentConfig, int version) {
+        StoredConfigEntity entity = new StoredConfigEntity();
+        entity.setSystemName(systemName);
+        entity.setStartConfigJson(toJson(startConfig));
+        entity.setCurrentConfigJson(toJson(currentConfig));
+        entity.setStartConfigDigest(JsonDigest.of(startConfig));
+        entity.setCurrentConfigDigest(JsonDigest.of(currentConfig));
+        entity.setUpdatedAt(UPDATED_AT);
+        entity.setVersion(version);
+        return entity;
+    }
+
+    /**
+     * In-memory заглушка репозитория: реализует только методы, которые вызываются на измеряемых путях
+     */
+    static StoredConfigRepository inMemoryRepository(Map<String, StoredConfigEntity> store) {
+        return (StoredConfigRepository) Proxy.newProxyInstance(
+            StoredConfigRepository.class.getClassLoader(),
+            new Class<?>[] {StoredConfigRepository.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findBySystemName":
+                    case "findById":
+                        return Optional.ofNullable(store.get((String) args[0]));
+                    case "existsBySystemName":
+                    case "existsById":
+                        return store.containsKey((String) args[0]);
+                    case "findAll":
+                        return new ArrayList<>(store.values());
+                    case "save":
+                        StoredConfigEntity entity = (StoredConfigEntity) args[0];
+                        store.put(entity.getSystemName(), entity);
+                        return entity;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "InMemoryStoredConfigRepository";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * Менеджер транзакций без базы: TransactionTemplate в сервисе просто выполняет код
+     */
+    static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    static String toJson(JsonNode node) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
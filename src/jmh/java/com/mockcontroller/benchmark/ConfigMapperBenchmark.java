@@ -0,0 +1,90 @@
+package com.mockcontroller.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mockcontroller.dto.ConfigViewDto;
+import com.mockcontroller.model.StoredConfig;
+import com.mockcontroller.model.TypedConfig;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.service.ConfigCache;
+import com.mockcontroller.service.ConfigMapper;
+import com.mockcontroller.service.ConfigService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг конфигов: entity -> модель (парсинг JSON из базы), модель -> entity (сериализация)
+ * построение типизированной модели конфига и ConfigViewDto для страницы конфига.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ConfigMapperBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int params;
+
+    private ConfigMapper mapper;
+    private ConfigService configService;
+    private StoredConfigEntity entity;
+    private StoredConfig stored;
+
+    @Setup
+    public void setUp() {
+        JsonNode startConfig = BenchmarkFixtures.config(params);
+        // Текущий конфиг отличается от стартового половиной задержек - как после правки в UI
+        JsonNode currentConfig = BenchmarkFixtures.config(params / 2);
+        entity = BenchmarkFixtures.storedEntity(BenchmarkFixtures.SYSTEM_NAME, startConfig, currentConfig, 3);
+
+        mapper = new ConfigMapper(BenchmarkFixtures.OBJECT_MAPPER, new SimpleMeterRegistry());
+        stored = mapper.toModel(entity);
+
+        Map<String, StoredConfigEntity> store = new HashMap<>();
+        store.put(BenchmarkFixtures.SYSTEM_NAME, entity);
+        StoredConfigRepository repository = BenchmarkFixtures.inMemoryRepository(store);
+        configService = new ConfigService(BenchmarkFixtures.OBJECT_MAPPER, repository, mapper, null,
+            new ConfigCache(repository, mapper), event -> { }, null, null, null, null);
+    }
+
+    @Benchmark
+    public StoredConfig toModel() {
+        return mapper.toModel(entity);
+    }
+
+    @Benchmark
+    public StoredConfigEntity toEntity() {
+        return mapper.toEntity(stored);
+    }
+
+    @Benchmark
+    public TypedConfig buildTypedConfig() {
+        return TypedConfig.lenient(stored.getCurrentConfig());
+    }
+
+    @Benchmark
+    public boolean typedConfigEquals() {
+        return stored.getCurrentTyped().equals(stored.getStartTyped());
+    }
+
+    @Benchmark
+    public ConfigViewDto toConfigViewDto() {
+        return configService.toConfigViewDto(stored);
+    }
+}
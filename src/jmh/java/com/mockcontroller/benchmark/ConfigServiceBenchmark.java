@@ -0,0 +1,137 @@
+package com.mockcontroller.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mockcontroller.model.CheckUpdateRequest;
+import com.mockcontroller.model.CheckUpdateResponse;
+import com.mockcontroller.model.CheckVersionRequest;
+import com.mockcontroller.model.ConfigRequest;
+import com.mockcontroller.model.ConfigSyncResponse;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.service.ConfigCache;
+import com.mockcontroller.service.ConfigMapper;
+import com.mockcontroller.service.ConfigService;
+import com.mockcontroller.util.JsonDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь опроса заглушки: checkUpdate, checkVersion и handleIncoming поверх in-memory репозитория,
+ * а также валидация и сравнение конфигов, из которых эти вызовы состоят.
+ * База не участвует - измеряется только CPU и аллокации самого контроллера.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ConfigServiceBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int params;
+
+    private ConfigService configService;
+    private JsonNode config;
+    private JsonNode configCopy;
+    private CheckUpdateRequest startVersionPoll;
+    private CheckUpdateRequest currentVersionPoll;
+    private CheckVersionRequest versionOnlyPoll;
+    private ConfigRequest unchangedUpload;
+
+    @Setup
+    public void setUp() {
+        config = BenchmarkFixtures.config(params);
+        // Отдельное дерево с тем же содержимым - как после десериализации запроса
+        configCopy = config.deepCopy();
+
+        Map<String, StoredConfigEntity> store = new HashMap<>();
+        store.put(BenchmarkFixtures.SYSTEM_NAME,
+            BenchmarkFixtures.storedEntity(BenchmarkFixtures.SYSTEM_NAME, config, config, 2));
+        StoredConfigRepository repository = BenchmarkFixtures.inMemoryRepository(store);
+        ConfigMapper mapper = new ConfigMapper(BenchmarkFixtures.OBJECT_MAPPER, new SimpleMeterRegistry());
+        ConfigCache cache = new ConfigCache(repository, mapper);
+        cache.load();
+        // GroupService нужен только при первой регистрации системы, журнал версий и пакетный репозиторий -
+        // только при изменении конфига; в бенчмарке система уже зарегистрирована и конфиг не меняется
+        configService = new ConfigService(BenchmarkFixtures.OBJECT_MAPPER, repository, mapper, null, cache, event -> { }, null, null, null,
+            BenchmarkFixtures.noOpTransactionManager());
+
+        startVersionPoll = new CheckUpdateRequest();
+        startVersionPoll.setSystemName(BenchmarkFixtures.SYSTEM_NAME);
+        startVersionPoll.setVersion("v1");
+        startVersionPoll.setConfig(configCopy);
+
+        currentVersionPoll = new CheckUpdateRequest();
+        currentVersionPoll.setSystemName(BenchmarkFixtures.SYSTEM_NAME);
+        currentVersionPoll.setVersion("v2");
+        currentVersionPoll.setConfig(configCopy);
+
+        versionOnlyPoll = new CheckVersionRequest();
+        versionOnlyPoll.setSystemName(BenchmarkFixtures.SYSTEM_NAME);
+        versionOnlyPoll.setVersion("v2");
+        versionOnlyPoll.setConfigDigest(JsonDigest.toHex(JsonDigest.of(config)));
+
+        unchangedUpload = new ConfigRequest();
+        unchangedUpload.setSystemName(BenchmarkFixtures.SYSTEM_NAME);
+        unchangedUpload.setVersion("v2");
+        unchangedUpload.setConfig(configCopy);
+    }
+
+    /**
+     * Заглушка на стартовой версии: валидация, digest входящего конфига и сравнение со стартовым
+     */
+    @Benchmark
+    public CheckUpdateResponse checkUpdateStartVersion() {
+        return configService.checkUpdate(startVersionPoll);
+    }
+
+    /**
+     * Заглушка на актуальной версии: валидация и ответ из кэша
+     */
+    @Benchmark
+    public CheckUpdateResponse checkUpdateCurrentVersion() {
+        return configService.checkUpdate(currentVersionPoll);
+    }
+
+    @Benchmark
+    public CheckUpdateResponse checkVersion() {
+        return configService.checkVersion(versionOnlyPoll);
+    }
+
+    /**
+     * Загрузка конфига без изменений: чтение из репозитория, маппинг и сравнение стартового и текущего
+     */
+    @Benchmark
+    public ConfigSyncResponse handleIncomingNoChanges() {
+        return configService.handleIncoming(unchangedUpload);
+    }
+
+    @Benchmark
+    public JsonNode validateConfig() {
+        configService.validateConfig(configCopy);
+        return configCopy;
+    }
+
+    /**
+     * Сравнение конфигов (заменило jsonEquals): digest обеих сторон и структурное сравнение при совпадении
+     */
+    @Benchmark
+    public boolean digestEquals() {
+        return JsonDigest.equals(config, JsonDigest.of(config), configCopy, JsonDigest.of(configCopy));
+    }
+}
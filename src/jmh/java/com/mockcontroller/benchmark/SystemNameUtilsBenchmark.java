@@ -0,0 +1,41 @@
+package com.mockcontroller.benchmark;
+
+import com.mockcontroller.util.SystemNameUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нормализация имени системы - выполняется на каждом запросе заглушки
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SystemNameUtilsBenchmark {
+
+    // Уже корректное имя (частый случай) и имя, в котором есть что заменять
+    @Param({"payments-gateway-mock", "payments gateway/v2.mock"})
+    public String systemName;
+
+    @Benchmark
+    public String sanitize() {
+        return SystemNameUtils.sanitize(systemName);
+    }
+
+    @Benchmark
+    public boolean isValidTemplate() {
+        return SystemNameUtils.isValidTemplate(systemName);
+    }
+}
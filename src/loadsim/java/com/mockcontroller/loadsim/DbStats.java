@@ -0,0 +1,112 @@
+package com.mockcontroller.loadsim;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Счетчики PostgreSQL, которые контроллер сам не отдает: количество транзакций и запросов
+ * за время прогона и задержка применения запланированных обновлений.
+ * Используется, только если указан --db-url.
+ */
+final class DbStats implements AutoCloseable {
+
+    static final String COMMENT_PREFIX = "loadsim:";
+
+    private final Connection connection;
+    private boolean statementsAvailable = true;
+
+    private DbStats(Connection connection) {
+        this.connection = connection;
+    }
+
+    static DbStats connect(SimulatorOptions options) throws SQLException {
+        if (options.dbUrl == null) {
+            return null;
+        }
+        Connection connection = DriverManager.getConnection(options.dbUrl, options.dbUser, options.dbPassword);
+        connection.setAutoCommit(true);
+        return new DbStats(connection);
+    }
+
+    Snapshot snapshot() throws SQLException {
+        long transactions;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()")) {
+            transactions = rs.next() ? rs.getLong(1) : -1;
+        }
+        long statements = -1;
+        if (statementsAvailable) {
+            // Расширение pg_stat_statements может быть не установлено - тогда показываем только транзакции
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                     "SELECT COALESCE(SUM(calls), 0) FROM pg_stat_statements " +
+                     "WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())")) {
+                statements = rs.next() ? rs.getLong(1) : -1;
+            } catch (SQLException e) {
+                statementsAvailable = false;
+            }
+        }
+        return new Snapshot(transactions, statements);
+    }
+
+    /**
+     * Задержка применения обновлений, запланированных симулятором: applied_at - scheduled_time
+     */
+    SchedulerLag schedulerLag(LocalDateTime since) throws SQLException {
+        String sql = "SELECT COUNT(*), " +
+            "percentile_cont(0.5) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM applied_at - scheduled_time)), " +
+            "percentile_cont(0.99) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM applied_at - scheduled_time)), " +
+            "MAX(EXTRACT(EPOCH FROM applied_at - scheduled_time)), " +
+            "(SELECT COUNT(*) FROM scheduled_config_updates WHERE comment LIKE ? AND created_at >= ? AND applied = false) " +
+            "FROM scheduled_config_updates WHERE comment LIKE ? AND created_at >= ? AND applied = true";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, COMMENT_PREFIX + "%");
+            statement.setTimestamp(2, Timestamp.valueOf(since));
+            statement.setString(3, COMMENT_PREFIX + "%");
+            statement.setTimestamp(4, Timestamp.valueOf(since));
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return new SchedulerLag(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getLong(5));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    static final class Snapshot {
+        final long transactions;
+        // -1 - pg_stat_statements недоступен
+        final long statements;
+
+        Snapshot(long transactions, long statements) {
+            this.transactions = transactions;
+            this.statements = statements;
+        }
+    }
+
+    static final class SchedulerLag {
+        final long applied;
+        final double p50Seconds;
+        final double p99Seconds;
+        final double maxSeconds;
+        final long pending;
+
+        SchedulerLag(long applied, double p50Seconds, double p99Seconds, double maxSeconds, long pending) {
+            this.applied = applied;
+            this.p50Seconds = p50Seconds;
+            this.p99Seconds = p99Seconds;
+            this.maxSeconds = maxSeconds;
+            this.pending = pending;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mockcontroller.loadsim;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасная гистограмма задержек с логарифмическими корзинами (шаг 2%).
+ * Память постоянна и не зависит от числа запросов, точность перцентилей - около 2%.
+ */
+final class LatencyHistogram {
+
+    private static final double BUCKET_BASE = 1.02;
+    private static final double LOG_BASE = Math.log(BUCKET_BASE);
+    // До ~10 минут в микросекундах
+    private static final int BUCKETS = (int) Math.ceil(Math.log(600_000_000d) / LOG_BASE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void record(long micros) {
+        long value = Math.max(1, micros);
+        int bucket = Math.min(BUCKETS - 1, (int) (Math.log(value) / LOG_BASE));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    void recordError() {
+        errors.incrementAndGet();
+    }
+
+    long count() {
+        return total.get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    long maxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile от 0 до 100
+     * @return верхняя граница корзины, в которую попал перцентиль, в микросекундах
+     */
+    long percentileMicros(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(maxMicros.get(), (long) Math.ceil(Math.pow(BUCKET_BASE, i + 1)));
+            }
+        }
+        return maxMicros.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        errors.set(0);
+        maxMicros.set(0);
+    }
+}
@@ -0,0 +1,376 @@
+package com.mockcontroller.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Симулятор парка заглушек для нагрузочного тестирования контроллера.
+ * N систем x M подов регистрируют конфиги, опрашивают checkUpdate, забирают новые версии
+ * и отправляют healthcheck с заданными интервалами. Параллельно планируются обновления конфигов
+ * (и, при необходимости, запускается сценарий), чтобы опрос шел одновременно с работой планировщика.
+ *
+ * Контроллер должен быть запущен заранее. Запуск:
+ * mvn -Ploadsim test-compile exec:exec -Dloadsim.args="--systems=50 --pods=4 --duration-seconds=120"
+ */
+public final class MockFleetSimulator {
+
+    private static final DateTimeFormatter SCHEDULE_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss dd-MM-yyyy");
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+
+    enum Endpoint {
+        REGISTER("POST /api/configs"),
+        CHECK_UPDATE("POST /api/configs/checkUpdate"),
+        GET_CONFIG("GET /api/configs/{system}"),
+        HEALTHCHECK("POST /api/healthcheck"),
+        SCHEDULE("POST /api/configs/schedule"),
+        SCENARIO("GET /api/scenarios/execute");
+
+        private final String title;
+
+        Endpoint(String title) {
+            this.title = title;
+        }
+    }
+
+    private final SimulatorOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService executor;
+    private final Random random;
+    private final Map<Endpoint, LatencyHistogram> histograms = new EnumMap<>(Endpoint.class);
+    // Насколько позже плана срабатывают задачи опроса - если растет, упирается сам симулятор, а не контроллер
+    private final LatencyHistogram clientLag = new LatencyHistogram();
+    private final AtomicLong updatesReceived = new AtomicLong();
+    private final AtomicLong scheduledUpdates = new AtomicLong();
+    private final List<Pod> pods = new ArrayList<>();
+
+    private MockFleetSimulator(SimulatorOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.executor = Executors.newScheduledThreadPool(options.threads);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new MockFleetSimulator(SimulatorOptions.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Mock fleet: %d систем x %d подов = %d подов, опрос каждые %d мс, healthcheck каждые %d мс, %d параметров в конфиге%n",
+            options.systems, options.podsPerSystem, options.totalPods(), options.pollIntervalMs,
+            options.healthcheckIntervalMs, options.configParams);
+        System.out.printf("Контроллер: %s, прогрев %d с, измерение %d с%n",
+            options.baseUrl, options.warmupSeconds, options.durationSeconds);
+
+        try (DbStats db = DbStats.connect(options)) {
+            createPods();
+            registerPods();
+            startPods();
+            if (options.scheduleIntervalMs > 0) {
+                executor.scheduleAtFixedRate(this::scheduleUpdate, options.scheduleIntervalMs,
+                    options.scheduleIntervalMs, TimeUnit.MILLISECONDS);
+            }
+
+            TimeUnit.SECONDS.sleep(options.warmupSeconds);
+            histograms.values().forEach(LatencyHistogram::reset);
+            clientLag.reset();
+            updatesReceived.set(0);
+            scheduledUpdates.set(0);
+            LocalDateTime measurementStart = LocalDateTime.now();
+            DbStats.Snapshot dbBefore = db != null ? db.snapshot() : null;
+            if (options.scenarioEnabled()) {
+                executor.execute(this::executeScenario);
+            }
+
+            long startNanos = System.nanoTime();
+            long elapsedSeconds = 0;
+            while (elapsedSeconds < options.durationSeconds) {
+                long step = Math.min(PROGRESS_INTERVAL_SECONDS, options.durationSeconds - elapsedSeconds);
+                TimeUnit.SECONDS.sleep(step);
+                elapsedSeconds += step;
+                printProgress(elapsedSeconds);
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000d;
+            DbStats.Snapshot dbAfter = db != null ? db.snapshot() : null;
+
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            long totalRequests = printReport(seconds);
+            if (db != null) {
+                // Последние запланированные обновления должны успеть примениться
+                TimeUnit.SECONDS.sleep(options.scheduleDelaySeconds + 2L);
+                printDbReport(dbBefore, dbAfter, seconds, totalRequests, db.schedulerLag(measurementStart));
+            } else {
+                System.out.println("Статистика БД и задержка планировщика: укажите --db-url=jdbc:postgresql://...");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void createPods() throws IOException {
+        for (int s = 0; s < options.systems; s++) {
+            String systemName = String.format("loadsim-s%03d-mock", s);
+            String configJson = objectMapper.writeValueAsString(buildConfig(options.configParams, s, 0));
+            for (int p = 0; p < options.podsPerSystem; p++) {
+                pods.add(new Pod(systemName, systemName + "-pod-" + p, configJson));
+            }
+        }
+    }
+
+    private void registerPods() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(pods.size());
+        for (Pod pod : pods) {
+            executor.execute(() -> {
+                try {
+                    String body = "{\"SystemName\":\"" + pod.systemName + "\",\"version\":\"v1\",\"config\":" + pod.configJson + "}";
+                    send(Endpoint.REGISTER, post("/api/configs", body));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        System.out.printf("Зарегистрировано подов: %d (ошибок: %d)%n",
+            pods.size(), histograms.get(Endpoint.REGISTER).errors());
+    }
+
+    private void startPods() {
+        for (Pod pod : pods) {
+            long pollDelay = (long) (random.nextDouble() * options.pollIntervalMs);
+            long healthDelay = (long) (random.nextDouble() * options.healthcheckIntervalMs);
+            pod.nextPollNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollDelay);
+            executor.scheduleAtFixedRate(() -> poll(pod), pollDelay, options.pollIntervalMs, TimeUnit.MILLISECONDS);
+            executor.scheduleAtFixedRate(() -> healthcheck(pod), healthDelay, options.healthcheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll(Pod pod) {
+        long now = System.nanoTime();
+        clientLag.record(Math.max(0, now - pod.nextPollNanos) / 1000);
+        pod.nextPollNanos += TimeUnit.MILLISECONDS.toNanos(options.pollIntervalMs);
+
+        String body = "{\"SystemName\":\"" + pod.systemName + "\",\"version\":\"v" + pod.version
+            + "\",\"config\":" + pod.configJson + "}";
+        HttpResponse<String> response = send(Endpoint.CHECK_UPDATE, post("/api/configs/checkUpdate", body));
+        if (response == null || response.statusCode() >= 400) {
+            return;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(response.body());
+            if (json.path("needUpdate").asBoolean(false)) {
+                String currentVersion = json.path("currentVersion").asText("v1");
+                HttpResponse<String> config = send(Endpoint.GET_CONFIG,
+                    get("/api/configs/" + pod.systemName + "?version=" + currentVersion));
+                if (config != null && config.statusCode() < 400) {
+                    pod.version = parseVersion(currentVersion);
+                    updatesReceived.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            histograms.get(Endpoint.CHECK_UPDATE).recordError();
+        }
+    }
+
+    private void healthcheck(Pod pod) {
+        send(Endpoint.HEALTHCHECK, post("/api/healthcheck?systemName=" + encode(pod.systemName)
+            + "&instanceId=" + encode(pod.instanceId), ""));
+    }
+
+    /**
+     * Планирует изменение конфига очередной системы - поды получат его через checkUpdate
+     */
+    private void scheduleUpdate() {
+        long n = scheduledUpdates.incrementAndGet();
+        int systemIndex = (int) (n % options.systems);
+        String systemName = String.format("loadsim-s%03d-mock", systemIndex);
+        try {
+            String configJson = objectMapper.writeValueAsString(buildConfig(options.configParams, systemIndex, n));
+            String scheduledTime = LocalDateTime.now().plusSeconds(options.scheduleDelaySeconds).format(SCHEDULE_FORMATTER);
+            String body = "{\"SystemName\":\"" + systemName + "\",\"scheduledTime\":\"" + scheduledTime
+                + "\",\"comment\":\"" + DbStats.COMMENT_PREFIX + " update " + n + "\",\"config\":" + configJson + "}";
+            send(Endpoint.SCHEDULE, post("/api/configs/schedule", body));
+        } catch (IOException e) {
+            histograms.get(Endpoint.SCHEDULE).recordError();
+        }
+    }
+
+    private void executeScenario() {
+        String startTime = LocalDateTime.now().plusSeconds(5).format(SCHEDULE_FORMATTER);
+        send(Endpoint.SCENARIO, get("/api/scenarios/execute?group=" + encode(options.scenarioGroup)
+            + "&name=" + encode(options.scenarioName) + "&startTime=" + encode(startTime)));
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest request) {
+        LatencyHistogram histogram = histograms.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                histogram.recordError();
+            } else {
+                histogram.record((System.nanoTime() - start) / 1000);
+            }
+            return response;
+        } catch (IOException e) {
+            histogram.recordError();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+
+    /**
+     * Детерминированный конфиг: variant меняет значения задержек, чтобы обновление отличалось от стартового
+     */
+    private ObjectNode buildConfig(int params, int systemIndex, long variant) {
+        ObjectNode config = objectMapper.createObjectNode();
+        ObjectNode delays = config.putObject("delays");
+        ObjectNode stringParams = config.putObject("stringParams");
+        ObjectNode intParams = config.putObject("intParams");
+        ObjectNode booleanVariables = config.putObject("booleanVariables");
+        for (int i = 0; i < params; i++) {
+            switch (i % 4) {
+                case 0:
+                    delays.put("delay_" + i, (int) ((i * 37L + systemIndex + variant) % 5000));
+                    break;
+                case 1:
+                    stringParams.put("param_" + i, "value-" + systemIndex + "-" + i);
+                    break;
+                case 2:
+                    intParams.put("int_" + i, i * 7);
+                    break;
+                default:
+                    booleanVariables.put("flag_" + i, i % 8 == 3);
+                    break;
+            }
+        }
+        config.put("loggingLv", "INFO");
+        return config;
+    }
+
+    private void printProgress(long elapsedSeconds) {
+        LatencyHistogram checkUpdate = histograms.get(Endpoint.CHECK_UPDATE);
+        System.out.printf("[%3d с] checkUpdate: %d запросов, p99 %.1f мс, ошибок %d; получено обновлений: %d%n",
+            elapsedSeconds, checkUpdate.count(), checkUpdate.percentileMicros(99) / 1000.0,
+            checkUpdate.errors(), updatesReceived.get());
+    }
+
+    /**
+     * @return общее число HTTP-запросов за время измерения
+     */
+    private long printReport(double seconds) {
+        System.out.println();
+        System.out.printf("Результаты за %.1f с%n", seconds);
+        System.out.printf("%-32s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+            "Эндпоинт", "запросов", "ошибок", "rps", "p50 мс", "p90 мс", "p99 мс", "p99.9 мс", "max мс");
+        long totalRequests = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            LatencyHistogram h = histograms.get(endpoint);
+            if (h.count() == 0 && h.errors() == 0) {
+                continue;
+            }
+            totalRequests += h.count() + h.errors();
+            System.out.printf("%-32s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.title, h.count(), h.errors(), h.count() / seconds,
+                h.percentileMicros(50) / 1000.0, h.percentileMicros(90) / 1000.0,
+                h.percentileMicros(99) / 1000.0, h.percentileMicros(99.9) / 1000.0, h.maxMicros() / 1000.0);
+        }
+        System.out.printf("Всего запросов: %d (%.1f rps)%n", totalRequests, totalRequests / seconds);
+        System.out.printf("Запланировано обновлений: %d, получено подами: %d%n",
+            scheduledUpdates.get(), updatesReceived.get());
+        System.out.printf("Отставание задач опроса в симуляторе: p99 %.1f мс, max %.1f мс%s%n",
+            clientLag.percentileMicros(99) / 1000.0, clientLag.maxMicros() / 1000.0,
+            clientLag.percentileMicros(99) > options.pollIntervalMs * 500L
+                ? " - симулятор не успевает, увеличьте --threads" : "");
+        return totalRequests;
+    }
+
+    private void printDbReport(DbStats.Snapshot before, DbStats.Snapshot after, double seconds,
+                               long totalRequests, DbStats.SchedulerLag lag) {
+        long transactions = after.transactions - before.transactions;
+        System.out.printf("БД: транзакций %d (%.1f/с, %.3f на HTTP-запрос)%n",
+            transactions, transactions / seconds, totalRequests > 0 ? (double) transactions / totalRequests : 0.0);
+        if (before.statements >= 0 && after.statements >= 0) {
+            long statements = after.statements - before.statements;
+            System.out.printf("БД: запросов %d (%.1f/с, %.3f на HTTP-запрос)%n",
+                statements, statements / seconds, totalRequests > 0 ? (double) statements / totalRequests : 0.0);
+        } else {
+            System.out.println("БД: количество запросов недоступно (нужно расширение pg_stat_statements)");
+        }
+        System.out.printf("Планировщик: применено %d, не применено %d, задержка p50 %.3f с, p99 %.3f с, max %.3f с%n",
+            lag.applied, lag.pending, lag.p50Seconds, lag.p99Seconds, lag.maxSeconds);
+    }
+
+    private static int parseVersion(String version) {
+        try {
+            return Integer.parseInt(version.startsWith("v") ? version.substring(1) : version);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class Pod {
+        private final String systemName;
+        private final String instanceId;
+        private final String configJson;
+        private volatile int version = 1;
+        // Плановое время следующего опроса (для измерения отставания симулятора)
+        private volatile long nextPollNanos;
+
+        private Pod(String systemName, String instanceId, String configJson) {
+            this.systemName = systemName;
+            this.instanceId = instanceId;
+            this.configJson = configJson;
+        }
+    }
+}
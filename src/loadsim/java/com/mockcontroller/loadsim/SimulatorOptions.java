@@ -0,0 +1,94 @@
+package com.mockcontroller.loadsim;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры симулятора. Передаются как --ключ=значение, например:
+ * --systems=50 --pods=4 --duration-seconds=120
+ */
+final class SimulatorOptions {
+
+    final String baseUrl;
+    final int systems;
+    final int podsPerSystem;
+    final int durationSeconds;
+    final int warmupSeconds;
+    final long pollIntervalMs;
+    final long healthcheckIntervalMs;
+    final int configParams;
+    final long scheduleIntervalMs;
+    final int scheduleDelaySeconds;
+    final int threads;
+    final long seed;
+    final String scenarioGroup;
+    final String scenarioName;
+    final String dbUrl;
+    final String dbUser;
+    final String dbPassword;
+
+    private SimulatorOptions(Map<String, String> values) {
+        baseUrl = stripTrailingSlash(values.getOrDefault("base-url", "http://localhost:8085"));
+        systems = intValue(values, "systems", 10);
+        podsPerSystem = intValue(values, "pods", 3);
+        durationSeconds = intValue(values, "duration-seconds", 60);
+        warmupSeconds = intValue(values, "warmup-seconds", 10);
+        pollIntervalMs = intValue(values, "poll-interval-ms", 1000);
+        healthcheckIntervalMs = intValue(values, "healthcheck-interval-ms", 5000);
+        configParams = intValue(values, "config-params", 50);
+        scheduleIntervalMs = intValue(values, "schedule-interval-ms", 5000);
+        scheduleDelaySeconds = intValue(values, "schedule-delay-seconds", 3);
+        threads = intValue(values, "threads", 64);
+        seed = Long.parseLong(values.getOrDefault("seed", "42"));
+        scenarioGroup = values.get("scenario-group");
+        scenarioName = values.get("scenario-name");
+        dbUrl = values.get("db-url");
+        dbUser = values.getOrDefault("db-user", "postgres");
+        dbPassword = values.getOrDefault("db-password", System.getenv("DB_PASSWORD"));
+    }
+
+    /**
+     * Каждый аргумент дополнительно делится по пробелам: через Maven все параметры
+     * приходят одной строкой (-Dloadsim.args="--systems=50 --pods=4")
+     */
+    static SimulatorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            for (String token : arg.trim().split("\\s+")) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                if (!token.startsWith("--") || !token.contains("=")) {
+                    throw new IllegalArgumentException("Ожидается --ключ=значение, получено: " + token);
+                }
+                int eq = token.indexOf('=');
+                values.put(token.substring(2, eq), token.substring(eq + 1));
+            }
+        }
+        return new SimulatorOptions(values);
+    }
+
+    int totalPods() {
+        return systems * podsPerSystem;
+    }
+
+    boolean scenarioEnabled() {
+        return scenarioGroup != null && scenarioName != null;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр --" + key + " должен быть целым числом: " + value);
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
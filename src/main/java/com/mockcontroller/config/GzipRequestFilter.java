@@ -0,0 +1,190 @@
+package com.mockcontroller.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Распаковка тел запросов с Content-Encoding: gzip (загрузка больших конфигов заглушками).
+ * Тело распаковывается в память до передачи запроса дальше, не больше app.http.max-inflated-bytes:
+ * несколько килобайт gzip могут распаковаться в гигабайты, такой запрос отклоняется с 413.
+ * Сжатие ответов выполняет сам сервер (server.compression в application.yml).
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GzipRequestFilter.class);
+
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    @Value("${app.http.max-inflated-bytes:10485760}")
+    private long maxInflatedBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null || !GZIP.equalsIgnoreCase(encoding.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body;
+        try {
+            body = inflate(request.getInputStream());
+        } catch (InflatedBodyTooLargeException e) {
+            logger.warn("Rejected gzip request body to {}: inflated size exceeds {} bytes",
+                    request.getRequestURI(), maxInflatedBytes);
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Распакованное тело запроса больше " + maxInflatedBytes + " байт");
+            return;
+        } catch (IOException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Некорректное gzip тело запроса: " + e.getMessage());
+            return;
+        }
+        filterChain.doFilter(new GzipRequestWrapper(request, body), response);
+    }
+
+    /**
+     * @throws InflatedBodyTooLargeException если распакованное тело больше maxInflatedBytes
+     */
+    private byte[] inflate(InputStream compressed) throws IOException {
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try (InputStream gzip = new GZIPInputStream(compressed, BUFFER_SIZE)) {
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = gzip.read(chunk)) != -1) {
+                if (inflated.size() + (long) count > maxInflatedBytes) {
+                    throw new InflatedBodyTooLargeException();
+                }
+                inflated.write(chunk, 0, count);
+            }
+        }
+        return inflated.toByteArray();
+    }
+
+    private static class InflatedBodyTooLargeException extends IOException {
+    }
+
+    /**
+     * Запрос с распакованным телом: Content-Encoding скрыт, Content-Length - длина распакованного тела
+     */
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private ServletInputStream inputStream;
+
+        GzipRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            if (inputStream == null) {
+                inputStream = new InflatedServletInputStream(body);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return String.valueOf(body.length);
+            }
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.enumeration(Collections.singletonList(String.valueOf(body.length)));
+            }
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    /**
+     * Распакованное тело из памяти. Асинхронное чтение (setReadListener) не поддерживается:
+     * тела API читаются блокирующим @RequestBody
+     */
+    private static class InflatedServletInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream delegate;
+
+        InflatedServletInputStream(byte[] body) {
+            this.delegate = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            return delegate.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Async read of gzip request body is not supported");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mockcontroller.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Счетчик SQL-запросов, которые выполняет Hibernate (mockcontroller.jpa.queries{type=select|insert|update|delete|other}).
+ * Подключается как StatementInspector и видит каждый подготовленный запрос без включения
+ * hibernate.generate_statistics. Запросы через JdbcTemplate (пакетные репозитории) сюда не попадают.
+ */
+@Component
+public class JpaQueryMetrics implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private final Counter selectCounter;
+    private final Counter insertCounter;
+    private final Counter updateCounter;
+    private final Counter deleteCounter;
+    private final Counter otherCounter;
+
+    public JpaQueryMetrics(MeterRegistry meterRegistry) {
+        this.selectCounter = counter(meterRegistry, "select");
+        this.insertCounter = counter(meterRegistry, "insert");
+        this.updateCounter = counter(meterRegistry, "update");
+        this.deleteCounter = counter(meterRegistry, "delete");
+        this.otherCounter = counter(meterRegistry, "other");
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        counterFor(sql).increment();
+        return sql;
+    }
+
+    private Counter counterFor(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        if (sql.regionMatches(true, i, "select", 0, 6) || sql.regionMatches(true, i, "with", 0, 4)) {
+            return selectCounter;
+        }
+        if (sql.regionMatches(true, i, "insert", 0, 6)) {
+            return insertCounter;
+        }
+        if (sql.regionMatches(true, i, "update", 0, 6)) {
+            return updateCounter;
+        }
+        if (sql.regionMatches(true, i, "delete", 0, 6)) {
+            return deleteCounter;
+        }
+        return otherCounter;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("mockcontroller.jpa.queries")
+            .description("SQL statements prepared by Hibernate")
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mockcontroller.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Бинарные форматы для API заглушек: application/x-jackson-smile и application/cbor
+ * (выбираются по Accept и Content-Type). Конвертеры строятся из общего ObjectMapper,
+ * чтобы настройки сериализации совпадали с JSON.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public WireFormatConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring добавляет свои конвертеры Smile/CBOR с отдельным ObjectMapper - заменяем их.
+        // Добавляем в конец списка: клиенты с Accept: */* (curl, браузер) по-прежнему получают JSON
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())));
+    }
+}
@@ -2,14 +2,23 @@ package com.mockcontroller.controller;
 
 import com.mockcontroller.model.*;
 import com.mockcontroller.service.ConfigService;
+import com.mockcontroller.service.ConfigWatchService;
 import com.mockcontroller.service.ScheduledConfigService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,15 +29,43 @@ public class ConfigApiController {
 
     private final ConfigService configService;
     private final ScheduledConfigService scheduledConfigService;
-
-    public ConfigApiController(ConfigService configService, ScheduledConfigService scheduledConfigService) {
+    private final ConfigWatchService configWatchService;
+
+    // Результаты опроса заглушками (mockcontroller.config.check{endpoint, result}).
+    // Время и HTTP-исход всех эндпоинтов считает http.server.requests{uri, outcome, status}
+    private final Counter checkUpdateNeeded;
+    private final Counter checkUpdateCurrent;
+    private final Counter checkVersionNeeded;
+    private final Counter checkVersionCurrent;
+    private final Counter checkVersionConfigRequired;
+
+    public ConfigApiController(ConfigService configService, ScheduledConfigService scheduledConfigService,
+                               ConfigWatchService configWatchService, MeterRegistry meterRegistry) {
         this.configService = configService;
         this.scheduledConfigService = scheduledConfigService;
+        this.configWatchService = configWatchService;
+        this.checkUpdateNeeded = checkCounter(meterRegistry, "checkUpdate", "update");
+        this.checkUpdateCurrent = checkCounter(meterRegistry, "checkUpdate", "current");
+        this.checkVersionNeeded = checkCounter(meterRegistry, "checkVersion", "update");
+        this.checkVersionCurrent = checkCounter(meterRegistry, "checkVersion", "current");
+        this.checkVersionConfigRequired = checkCounter(meterRegistry, "checkVersion", "config_required");
     }
 
     @PostMapping("/checkUpdate")
     public ResponseEntity<CheckUpdateResponse> checkUpdate(@RequestBody CheckUpdateRequest request) {
         CheckUpdateResponse response = configService.checkUpdate(request);
+        (response.isNeedUpdate() ? checkUpdateNeeded : checkUpdateCurrent).increment();
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/checkVersion")
+    public ResponseEntity<CheckUpdateResponse> checkVersion(@RequestBody CheckVersionRequest request) {
+        CheckUpdateResponse response = configService.checkVersion(request);
+        if (Boolean.TRUE.equals(response.getNeedConfig())) {
+            checkVersionConfigRequired.increment();
+        } else {
+            (response.isNeedUpdate() ? checkVersionNeeded : checkVersionCurrent).increment();
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -38,6 +75,13 @@ public class ConfigApiController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/{systemName}/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchConfig(
+            @PathVariable String systemName,
+            @RequestParam(required = false) String version) {
+        return configWatchService.subscribe(systemName, version);
+    }
+
     @GetMapping("/{systemName}/scheduled")
     public ResponseEntity<List<ScheduledUpdateInfo>> getScheduledUpdates(@PathVariable String systemName) {
         try {
@@ -58,9 +102,26 @@ public class ConfigApiController {
     @GetMapping("/{systemName}")
     public ResponseEntity<ConfigResponse> getConfig(
             @PathVariable String systemName,
-            @RequestParam(required = false) String version) {
+            @RequestParam(required = false) String version,
+            @RequestParam(required = false) String since,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
         try {
-            ConfigResponse response = configService.getConfig(systemName, version);
+            // Тело зависит от формата (JSON, Smile, CBOR) и сжатия - кэши и условные запросы должны их различать,
+            // в том числе для 304
+            servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // ETag считается по кэшу до чтения конфига: если у пода та же версия (If-None-Match),
+            // отвечаем 304 без загрузки и сериализации конфига. ETag берется до чтения тела,
+            // поэтому тело может оказаться только новее ETag, но не старее.
+            Optional<String> eTag = configService.configETag(systemName, version, since);
+            if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+                return null;
+            }
+            // since - версия, которая уже есть у пода: вернется только разница до текущей версии
+            ConfigResponse response = since != null && !since.isEmpty()
+                    ? configService.getConfigSince(systemName, since)
+                    : configService.getConfig(systemName, version);
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -134,4 +195,12 @@ public class ConfigApiController {
             );
         }
     }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String endpoint, String result) {
+        return Counter.builder("mockcontroller.config.check")
+            .description("Mock config polls by result")
+            .tag("endpoint", endpoint)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.mockcontroller.dto.ConfigViewDto;
 import com.mockcontroller.model.Group;
 import com.mockcontroller.model.StoredConfig;
+import com.mockcontroller.model.StoredConfigSummary;
 import com.mockcontroller.model.Template;
 import com.mockcontroller.service.ConfigService;
 import com.mockcontroller.service.GroupService;
@@ -63,14 +64,14 @@ public class ConfigPageController {
 
     @GetMapping("/")
     public String landing(@RequestParam(required = false) String system, Model model) {
-        List<StoredConfig> allConfigs = new ArrayList<>(configService.findAll());
+        List<StoredConfigSummary> allConfigs = configService.findAllSummaries();
         
         // Получаем все группы
         Collection<Group> allGroups = groupService.findAll();
         
         // Создаем карту для быстрого поиска заглушек по имени
-        Map<String, StoredConfig> configsByName = new HashMap<>();
-        for (StoredConfig config : allConfigs) {
+        Map<String, StoredConfigSummary> configsByName = new HashMap<>();
+        for (StoredConfigSummary config : allConfigs) {
             configsByName.put(config.getSystemName(), config);
         }
         
@@ -101,9 +102,9 @@ public class ConfigPageController {
             
             if (selectedGroup != null) {
                 // Показываем заглушки из выбранной группы
-                List<StoredConfig> filteredConfigs = new ArrayList<>();
+                List<StoredConfigSummary> filteredConfigs = new ArrayList<>();
                 for (String systemName : selectedGroup.getSystemNames()) {
-                    StoredConfig config = configsByName.get(systemName);
+                    StoredConfigSummary config = configsByName.get(systemName);
                     if (config != null) {
                         filteredConfigs.add(config);
                     }
@@ -126,9 +127,9 @@ public class ConfigPageController {
                     .orElse(null);
                 
                 if (firstGroup != null) {
-                    List<StoredConfig> configsToShow = new ArrayList<>();
+                    List<StoredConfigSummary> configsToShow = new ArrayList<>();
                     for (String systemName : firstGroup.getSystemNames()) {
-                        StoredConfig config = configsByName.get(systemName);
+                        StoredConfigSummary config = configsByName.get(systemName);
                         if (config != null) {
                             configsToShow.add(config);
                         }
@@ -151,7 +152,7 @@ public class ConfigPageController {
         
         // Форматируем даты только для отображения (хранение не меняется)
         Map<String, String> formattedDates = new HashMap<>();
-        for (StoredConfig config : allConfigs) {
+        for (StoredConfigSummary config : allConfigs) {
             if (config.getUpdatedAt() != null) {
                 formattedDates.put(config.getSystemName(), 
                     config.getUpdatedAt().atZone(java.time.ZoneId.systemDefault())
@@ -267,7 +268,10 @@ public class ConfigPageController {
             String loggingLv = allParams.get("loggingLv");
             
             try {
-                boolean hasChanges = configService.updateConfigFromForm(decodedName, delays, stringParams, intParams, booleanVariables, loggingLv);
+                // Версия, открытая в форме: если конфиг успели изменить (другой пользователь, планировщик), сохранение отклоняется
+                Integer expectedVersion = ConfigService.parseExpectedVersion(allParams.get("expectedVersion"));
+                boolean hasChanges = configService.updateConfigFromForm(decodedName, delays, stringParams, intParams, booleanVariables,
+                        loggingLv, expectedVersion);
                 if (!hasChanges) {
                     return "redirect:/configs/" + java.net.URLEncoder.encode(decodedName, StandardCharsets.UTF_8) + 
                            "?info=" + java.net.URLEncoder.encode("Изменений не было, конфиг не обновлен", StandardCharsets.UTF_8);
@@ -284,10 +288,11 @@ public class ConfigPageController {
     }
 
     @PostMapping(value = "/configs/{systemName}", params = "action=revert")
-    public String revertConfig(@PathVariable String systemName) {
+    public String revertConfig(@PathVariable String systemName,
+                               @RequestParam(required = false) String expectedVersion) {
         try {
             String decodedName = URLDecoder.decode(systemName, StandardCharsets.UTF_8);
-            boolean hasChanges = configService.revertToStart(decodedName);
+            boolean hasChanges = configService.revertToStart(decodedName, ConfigService.parseExpectedVersion(expectedVersion));
             if (!hasChanges) {
                 return "redirect:/configs/" + java.net.URLEncoder.encode(decodedName, StandardCharsets.UTF_8) + 
                        "?info=" + java.net.URLEncoder.encode("Конфиг уже соответствует стартовому, изменений не было", StandardCharsets.UTF_8);
@@ -1,16 +1,26 @@
 package com.mockcontroller.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.mockcontroller.model.Group;
+import com.mockcontroller.model.GroupConfigPushRequest;
 import com.mockcontroller.model.GroupRequest;
+import com.mockcontroller.model.Template;
+import com.mockcontroller.service.ConfigService;
 import com.mockcontroller.service.GroupService;
 import com.mockcontroller.service.MockStatusService;
+import com.mockcontroller.service.TemplateService;
+import com.mockcontroller.util.SystemNameUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/groups")
@@ -18,10 +28,15 @@ public class GroupApiController {
 
     private final GroupService groupService;
     private final MockStatusService mockStatusService;
+    private final ConfigService configService;
+    private final TemplateService templateService;
 
-    public GroupApiController(GroupService groupService, MockStatusService mockStatusService) {
+    public GroupApiController(GroupService groupService, MockStatusService mockStatusService,
+                              ConfigService configService, TemplateService templateService) {
         this.groupService = groupService;
         this.mockStatusService = mockStatusService;
+        this.configService = configService;
+        this.templateService = templateService;
     }
 
     @GetMapping
@@ -97,6 +112,53 @@ public class GroupApiController {
         }
     }
 
+    /**
+     * Групповая отправка конфигов: все указанные системы группы получают новые конфиги
+     * (заданные явно или из шаблонов) одной транзакцией
+     */
+    @PostMapping("/{id}/configs")
+    public ResponseEntity<?> pushConfigs(@PathVariable String id, @RequestBody GroupConfigPushRequest request) {
+        try {
+            Optional<Group> groupOpt = groupService.findById(id);
+            if (groupOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Set<String> groupSystems = groupOpt.get().getSystemNames().stream()
+                    .map(SystemNameUtils::sanitize)
+                    .collect(Collectors.toSet());
+
+            Map<String, JsonNode> configs = new LinkedHashMap<>();
+            if (request.getConfigs() != null) {
+                configs.putAll(request.getConfigs());
+            }
+            if (request.getTemplates() != null) {
+                for (Map.Entry<String, String> entry : request.getTemplates().entrySet()) {
+                    Template template = templateService.findById(entry.getValue())
+                            .orElseThrow(() -> new IllegalArgumentException("Шаблон не найден: " + entry.getValue()));
+                    if (!template.getSystemName().equals(entry.getKey())) {
+                        throw new IllegalArgumentException("Шаблон " + entry.getValue() + " относится к системе "
+                                + template.getSystemName() + ", а не " + entry.getKey());
+                    }
+                    if (configs.putIfAbsent(entry.getKey(), template.getConfig()) != null) {
+                        throw new IllegalArgumentException("Для системы " + entry.getKey() + " заданы и конфиг, и шаблон");
+                    }
+                }
+            }
+            for (String systemName : configs.keySet()) {
+                if (!groupSystems.contains(SystemNameUtils.sanitize(systemName))) {
+                    throw new IllegalArgumentException("Система " + systemName + " не входит в группу " + groupOpt.get().getName());
+                }
+            }
+
+            return ResponseEntity.ok(configService.pushGroupConfigs(id, configs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Ошибка при отправке конфигов группы: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/healthcheck")
     public ResponseEntity<?> checkGroupHealth(@RequestParam String groupName) {
         try {
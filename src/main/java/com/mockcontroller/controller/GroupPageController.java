@@ -45,18 +45,8 @@ public class GroupPageController {
 
     @GetMapping("/new")
     public String newGroupPage(Model model) {
-        // Получаем все доступные заглушки (полные имена)
-        Collection<com.mockcontroller.model.StoredConfig> configs = configService.findAll();
-        List<String> allMocks = new ArrayList<>();
-        
-        for (com.mockcontroller.model.StoredConfig config : configs) {
-            String systemName = config.getSystemName();
-            if (systemName != null && !systemName.isEmpty()) {
-                allMocks.add(systemName);
-            }
-        }
-        
-        allMocks.sort(String::compareToIgnoreCase);
+        // Получаем все доступные заглушки (полные имена, отсортированы)
+        List<String> allMocks = configService.findAllSystemNames();
         
         model.addAttribute("systems", allMocks);
         model.addAttribute("faqUrl", getFaqUrl());
@@ -81,18 +71,8 @@ public class GroupPageController {
             Group group = groupService.findById(id)
                     .orElseThrow(() -> new IllegalArgumentException("Group not found: " + id));
             
-            // Получаем все доступные заглушки (полные имена)
-            Collection<com.mockcontroller.model.StoredConfig> configs = configService.findAll();
-            List<String> allMocks = new ArrayList<>();
-            
-            for (com.mockcontroller.model.StoredConfig config : configs) {
-                String systemName = config.getSystemName();
-                if (systemName != null && !systemName.isEmpty()) {
-                    allMocks.add(systemName);
-                }
-            }
-            
-            allMocks.sort(String::compareToIgnoreCase);
+            // Получаем все доступные заглушки (полные имена, отсортированы)
+            List<String> allMocks = configService.findAllSystemNames();
             
             model.addAttribute("group", group);
             model.addAttribute("systems", allMocks);
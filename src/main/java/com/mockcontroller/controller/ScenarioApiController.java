@@ -17,6 +17,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/scenarios")
@@ -169,9 +170,7 @@ public class ScenarioApiController {
             // Если group не похож на UUID, пытаемся найти группу по названию
             if (!group.matches("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$")) {
                 // Это название группы, нужно найти ID
-                groupId = groupService.findAll().stream()
-                        .filter(g -> g.getName().equalsIgnoreCase(group))
-                        .findFirst()
+                groupId = groupService.findByName(group)
                         .map(g -> g.getId())
                         .orElse(null);
                 
@@ -185,57 +184,8 @@ public class ScenarioApiController {
             Scenario scenario = scenarioService.findByGroupIdAndName(groupId, name)
                     .orElseThrow(() -> new IllegalArgumentException("Сценарий не найден"));
 
-            // Применяем шаги сценария относительно времени начала
-            for (ScenarioStep step : scenario.getSteps()) {
-                if (step.getTemplate() == null) {
-                    continue;
-                }
-
-                LocalDateTime scheduledTime;
-
-                if (step.getScheduledTime() != null) {
-                    // Если у шага есть scheduledTime, извлекаем относительное время (HH:mm)
-                    LocalDateTime stepTime = LocalDateTime.ofInstant(step.getScheduledTime(), 
-                            java.time.ZoneId.systemDefault());
-                    int hours = stepTime.getHour();
-                    int minutes = stepTime.getMinute();
-                    // Вычисляем абсолютное время: startDateTime + относительное время
-                    scheduledTime = startDateTime.plusHours(hours).plusMinutes(minutes);
-                } else {
-                    // Используем delayMs относительно startDateTime
-                    long delaySeconds = step.getDelayMs() / 1000;
-                    scheduledTime = startDateTime.plusSeconds(delaySeconds);
-                }
-
-                // Убеждаемся, что время не в прошлом
-                if (scheduledTime.isBefore(LocalDateTime.now())) {
-                    scheduledTime = LocalDateTime.now().plusSeconds(1);
-                }
-
-                // Формируем комментарий: название сценария и комментарий шага
-                String comment = "Сценарий: " + scenario.getName();
-                if (step.getComment() != null && !step.getComment().trim().isEmpty()) {
-                    String stepComment = step.getComment().trim();
-                    // Убираем префикс "Комментарий ступени: " если он уже есть
-                    if (stepComment.startsWith("Комментарий ступени: ")) {
-                        stepComment = stepComment.substring("Комментарий ступени: ".length());
-                    }
-                    comment += "|Комментарий ступени: " + stepComment;
-                }
-                
-                logger.debug("Creating scheduled update with comment: '{}' for scenario '{}' step {}", 
-                    comment, scenario.getName(), step.getStepOrder());
-                
-                // Применяем шаблон через запланированное обновление
-                scheduledConfigService.scheduleUpdate(
-                        step.getTemplate().getSystemName(),
-                        step.getTemplate().getConfig(),
-                        scheduledTime,
-                        comment
-                );
-            }
-
-            return ResponseEntity.ok("Сценарий '" + scenario.getName() + "' успешно запланирован на " + startTime);
+            // Шаги сценария планируются относительно времени начала одной пачкой, как и в executeScenario
+            return ResponseEntity.ok(scheduleScenario(scenario, startDateTime));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (Exception e) {
@@ -246,69 +196,79 @@ public class ScenarioApiController {
     }
 
     @PostMapping("/{id}/execute")
-    public ResponseEntity<Void> executeScenario(@PathVariable String id) {
+    public ResponseEntity<List<ScheduledConfigService.BatchItemResult>> executeScenario(@PathVariable String id) {
         try {
             Scenario scenario = scenarioService.findById(id)
                     .orElseThrow(() -> new IllegalArgumentException("Scenario not found"));
 
-            LocalDateTime baseTime = LocalDateTime.now();
+            return ResponseEntity.ok(scheduleScenario(scenario, LocalDateTime.now()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Ошибка при выполнении сценария", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            for (ScenarioStep step : scenario.getSteps()) {
-                if (step.getTemplate() == null) {
-                    continue;
-                }
+    /**
+     * Планирует все шаги сценария относительно baseTime одной пачкой (ScheduledConfigService.scheduleBatch)
+     *
+     * @return результат по каждому шагу в порядке шагов сценария
+     */
+    private List<ScheduledConfigService.BatchItemResult> scheduleScenario(Scenario scenario, LocalDateTime baseTime) {
+        List<ScheduledConfigService.BatchItem> batch = new ArrayList<>();
+        // Идентификатор запуска: по нему в истории связываются все шаги одного запуска сценария
+        String runId = UUID.randomUUID().toString();
+        for (ScenarioStep step : scenario.getSteps()) {
+            if (step.getTemplate() == null) {
+                continue;
+            }
 
-                LocalDateTime scheduledTime;
-                if (step.getScheduledTime() != null) {
-                    // Извлекаем относительное время из scheduledTime (HH:mm)
-                    LocalDateTime stepTime = LocalDateTime.ofInstant(step.getScheduledTime(), 
-                            java.time.ZoneId.systemDefault());
-                    // Берем только часы и минуты как относительное время
-                    int hours = stepTime.getHour();
-                    int minutes = stepTime.getMinute();
-                    // Вычисляем абсолютное время: baseTime + относительное время
-                    scheduledTime = baseTime.plusHours(hours).plusMinutes(minutes);
-                } else {
-                    // Используем delayMs для расчета относительно текущего времени
-                    long delaySeconds = step.getDelayMs() / 1000;
-                    scheduledTime = baseTime.plusSeconds(delaySeconds);
-                }
+            LocalDateTime scheduledTime;
+            if (step.getScheduledTime() != null) {
+                // Извлекаем относительное время из scheduledTime (HH:mm)
+                LocalDateTime stepTime = LocalDateTime.ofInstant(step.getScheduledTime(), 
+                        java.time.ZoneId.systemDefault());
+                // Берем только часы и минуты как относительное время
+                int hours = stepTime.getHour();
+                int minutes = stepTime.getMinute();
+                // Вычисляем абсолютное время: baseTime + относительное время
+                scheduledTime = baseTime.plusHours(hours).plusMinutes(minutes);
+            } else {
+                // Используем delayMs относительно baseTime
+                long delaySeconds = step.getDelayMs() / 1000;
+                scheduledTime = baseTime.plusSeconds(delaySeconds);
+            }
 
-                // Убеждаемся, что время не в прошлом
-                if (scheduledTime.isBefore(LocalDateTime.now())) {
-                    scheduledTime = LocalDateTime.now().plusSeconds(1);
-                }
+            // Время в прошлом не сдвигаем: такой шаг применяется сразу, а опоздание
+            // относительно плана фиксируется при применении (lag_ms)
 
-                // Формируем комментарий: название сценария и комментарий шага
-                String comment = "Сценарий: " + scenario.getName();
-                if (step.getComment() != null && !step.getComment().trim().isEmpty()) {
-                    String stepComment = step.getComment().trim();
-                    // Убираем префикс "Комментарий ступени: " если он уже есть
-                    if (stepComment.startsWith("Комментарий ступени: ")) {
-                        stepComment = stepComment.substring("Комментарий ступени: ".length());
-                    }
-                    comment += "|Комментарий ступени: " + stepComment;
+            // Формируем комментарий: название сценария и комментарий шага
+            String comment = "Сценарий: " + scenario.getName();
+            if (step.getComment() != null && !step.getComment().trim().isEmpty()) {
+                String stepComment = step.getComment().trim();
+                // Убираем префикс "Комментарий ступени: " если он уже есть
+                if (stepComment.startsWith("Комментарий ступени: ")) {
+                    stepComment = stepComment.substring("Комментарий ступени: ".length());
                 }
-                
-                logger.debug("Creating scheduled update with comment: '{}' for scenario '{}' step {}", 
-                    comment, scenario.getName(), step.getStepOrder());
-                
-                // Применяем шаблон через запланированное обновление
-                scheduledConfigService.scheduleUpdate(
-                        step.getTemplate().getSystemName(),
-                        step.getTemplate().getConfig(),
-                        scheduledTime,
-                        comment
-                );
+                comment += "|Комментарий ступени: " + stepComment;
             }
-
-            return ResponseEntity.ok().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            logger.error("Ошибка при выполнении сценария", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            
+            logger.debug("Creating scheduled update with comment: '{}' for scenario '{}' step {}", 
+                comment, scenario.getName(), step.getStepOrder());
+            
+            batch.add(new ScheduledConfigService.BatchItem(
+                    step.getTemplate().getSystemName(),
+                    step.getTemplate().getConfig(),
+                    scheduledTime,
+                    comment,
+                    scenario.getId(),
+                    scenario.getGroupId(),
+                    runId
+            ));
         }
+
+        return scheduledConfigService.scheduleBatch(batch);
     }
 
     private List<ScenarioStep> convertSteps(List<ScenarioRequest.ScenarioStepRequest> stepRequests) {
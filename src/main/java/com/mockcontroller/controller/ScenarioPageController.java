@@ -180,7 +180,9 @@ public class ScenarioPageController {
             }
 
             LocalDateTime baseTime = LocalDateTime.now();
-            int scheduledCount = 0;
+            List<ScheduledConfigService.BatchItem> batch = new ArrayList<>();
+            // Идентификатор запуска: по нему в истории связываются все шаги одного запуска сценария
+            String runId = UUID.randomUUID().toString();
 
             for (var step : scenario.getSteps()) {
                 // Проверяем наличие шаблона
@@ -221,11 +223,8 @@ public class ScenarioPageController {
                     scheduledTime = baseTime.plusSeconds(delaySeconds);
                 }
 
-                // Убеждаемся, что время не в прошлом
-                LocalDateTime now = LocalDateTime.now();
-                if (scheduledTime.isBefore(now)) {
-                    scheduledTime = now.plusSeconds(1);
-                }
+                // Время в прошлом не сдвигаем: такой шаг применяется сразу, а опоздание
+                // относительно плана фиксируется при применении (lag_ms)
 
                 // Формируем комментарий: название сценария и комментарий шага
                 String comment = "Сценарий: " + scenario.getName();
@@ -238,23 +237,26 @@ public class ScenarioPageController {
                     comment += "|Комментарий ступени: " + stepComment;
                 }
                 
-                try {
-                    scheduledConfigService.scheduleUpdate(
-                            step.getTemplate().getSystemName(),
-                            step.getTemplate().getConfig(),
-                            scheduledTime,
-                            comment
-                    );
-                    scheduledCount++;
-                    logger.info("Scheduled step {} of scenario {} for system {} at {}", 
-                        step.getStepOrder(), id, step.getTemplate().getSystemName(), scheduledTime);
-                } catch (Exception e) {
-                    logger.error("Failed to schedule step {} of scenario {}: {}", 
-                        step.getStepOrder(), id, e.getMessage(), e);
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(new ScenarioExecutionResponse(false, 
-                            "Ошибка при планировании шага " + step.getStepOrder() + ": " + e.getMessage(), scheduledCount));
-                }
+                batch.add(new ScheduledConfigService.BatchItem(
+                        step.getTemplate().getSystemName(),
+                        step.getTemplate().getConfig(),
+                        scheduledTime,
+                        comment,
+                        scenario.getId(),
+                        scenario.getGroupId(),
+                        runId
+                ));
+            }
+
+            // Все шаги планируются одной пачкой в одной транзакции
+            int scheduledCount;
+            try {
+                scheduledCount = countScheduled(scheduledConfigService.scheduleBatch(batch));
+            } catch (Exception e) {
+                logger.error("Failed to schedule steps of scenario {}: {}", id, e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ScenarioExecutionResponse(false,
+                        "Ошибка при планировании шагов сценария: " + e.getMessage(), 0));
             }
 
             logger.info("Successfully scheduled {} steps for scenario {}", scheduledCount, id);
@@ -304,8 +306,10 @@ public class ScenarioPageController {
                     .body(new ScenarioExecutionResponse(false, "Сценарий не содержит шагов", 0));
             }
 
-            // Применяем шаги сценария относительно времени начала
-            int scheduledCount = 0;
+            // Собираем шаги сценария относительно времени начала
+            List<ScheduledConfigService.BatchItem> batch = new ArrayList<>();
+            // Идентификатор запуска: по нему в истории связываются все шаги одного запуска сценария
+            String runId = UUID.randomUUID().toString();
             for (var step : scenario.getSteps()) {
                 // Проверяем наличие шаблона
                 if (step.getTemplate() == null) {
@@ -313,7 +317,7 @@ public class ScenarioPageController {
                         step.getStepOrder(), id, step.getTemplateId());
                     return ResponseEntity.badRequest()
                         .body(new ScenarioExecutionResponse(false, 
-                            "Шаг " + step.getStepOrder() + " не содержит шаблона. Возможно, шаблон был удален.", scheduledCount));
+                            "Шаг " + step.getStepOrder() + " не содержит шаблона. Возможно, шаблон был удален.", 0));
                 }
 
                 if (step.getTemplate().getSystemName() == null || step.getTemplate().getConfig() == null) {
@@ -321,7 +325,7 @@ public class ScenarioPageController {
                         step.getStepOrder(), id);
                     return ResponseEntity.badRequest()
                         .body(new ScenarioExecutionResponse(false, 
-                            "Шаг " + step.getStepOrder() + " содержит некорректный шаблон", scheduledCount));
+                            "Шаг " + step.getStepOrder() + " содержит некорректный шаблон", 0));
                 }
 
                 LocalDateTime scheduledTime;
@@ -345,10 +349,8 @@ public class ScenarioPageController {
                     scheduledTime = startTime.plusSeconds(delaySeconds);
                 }
 
-                // Убеждаемся, что время не в прошлом
-                if (scheduledTime.isBefore(LocalDateTime.now())) {
-                    scheduledTime = LocalDateTime.now().plusSeconds(1);
-                }
+                // Время в прошлом не сдвигаем: такой шаг применяется сразу, а опоздание
+                // относительно плана фиксируется при применении (lag_ms)
 
                 // Формируем комментарий: название сценария и комментарий шага
                 String comment = "Сценарий: " + scenario.getName();
@@ -372,23 +374,26 @@ public class ScenarioPageController {
                 logger.debug("Creating scheduled update with comment: '{}' for scenario '{}' step {}", 
                     comment, scenario.getName(), step.getStepOrder());
 
-                try {
-                    scheduledConfigService.scheduleUpdate(
-                            step.getTemplate().getSystemName(),
-                            step.getTemplate().getConfig(),
-                            scheduledTime,
-                            comment
-                    );
-                    scheduledCount++;
-                    logger.info("Scheduled step {} of scenario {} for system {} at {}", 
-                        step.getStepOrder(), id, step.getTemplate().getSystemName(), scheduledTime);
-                } catch (Exception e) {
-                    logger.error("Failed to schedule step {} of scenario {}: {}", 
-                        step.getStepOrder(), id, e.getMessage(), e);
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(new ScenarioExecutionResponse(false, 
-                            "Ошибка при планировании шага " + step.getStepOrder() + ": " + e.getMessage(), scheduledCount));
-                }
+                batch.add(new ScheduledConfigService.BatchItem(
+                        step.getTemplate().getSystemName(),
+                        step.getTemplate().getConfig(),
+                        scheduledTime,
+                        comment,
+                        scenario.getId(),
+                        scenario.getGroupId(),
+                        runId
+                ));
+            }
+
+            // Все шаги планируются одной пачкой в одной транзакции
+            int scheduledCount;
+            try {
+                scheduledCount = countScheduled(scheduledConfigService.scheduleBatch(batch));
+            } catch (Exception e) {
+                logger.error("Failed to schedule steps of scenario {}: {}", id, e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ScenarioExecutionResponse(false,
+                        "Ошибка при планировании шагов сценария: " + e.getMessage(), 0));
             }
 
             logger.info("Successfully scheduled {} steps for scenario {} starting at {}", scheduledCount, id, scheduledDateTime);
@@ -510,6 +515,12 @@ public class ScenarioPageController {
     }
 
 
+    private int countScheduled(List<ScheduledConfigService.BatchItemResult> results) {
+        return (int) results.stream()
+            .filter(result -> result.getStatus() != ScheduledConfigService.BatchItemStatus.REJECTED)
+            .count();
+    }
+
     public static class MockWithTemplates {
         private final String mockName;
         private final List<Template> templates;
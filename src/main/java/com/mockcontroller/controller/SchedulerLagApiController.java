@@ -0,0 +1,39 @@
+package com.mockcontroller.controller;
+
+import com.mockcontroller.service.SchedulerLagService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/scheduler")
+public class SchedulerLagApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLagApiController.class);
+
+    private final SchedulerLagService schedulerLagService;
+
+    public SchedulerLagApiController(SchedulerLagService schedulerLagService) {
+        this.schedulerLagService = schedulerLagService;
+    }
+
+    /**
+     * Опоздание применения запланированных обновлений за последние hours часов
+     */
+    @GetMapping("/lag")
+    public ResponseEntity<?> getLagReport(
+            @RequestParam(required = false) String groupId,
+            @RequestParam(required = false) String runId,
+            @RequestParam(defaultValue = "24") int hours) {
+        try {
+            return ResponseEntity.ok(schedulerLagService.getReport(groupId, runId, hours));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Ошибка при построении отчета об опоздании планировщика", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.mockcontroller.controller;
 
 import com.mockcontroller.model.Group;
-import com.mockcontroller.model.StoredConfig;
 import com.mockcontroller.service.ConfigService;
 import com.mockcontroller.service.GroupService;
 import com.mockcontroller.service.MockStatusService;
@@ -64,11 +63,7 @@ public class StatusPageController {
         model.addAttribute("currentGroup", groupId);
         
         // Получаем все реальные заглушки из конфигов
-        Collection<StoredConfig> allConfigs = configService.findAll();
-        Map<String, StoredConfig> configsByName = new HashMap<>();
-        for (StoredConfig config : allConfigs) {
-            configsByName.put(config.getSystemName(), config);
-        }
+        Set<String> registeredSystems = new HashSet<>(configService.findAllSystemNames());
         
         // Создаем карту для быстрого поиска статусов по реальному имени заглушки
         Map<String, SystemStatusView> statusMap = new HashMap<>();
@@ -94,7 +89,7 @@ public class StatusPageController {
             .flatMap(g -> g.getSystemNames().stream())
             .collect(Collectors.toSet());
         
-        for (String systemName : configsByName.keySet()) {
+        for (String systemName : registeredSystems) {
             if (!statusMap.containsKey(systemName) && allGroupSystemNames.contains(systemName)) {
                 // Показываем заглушку с 0 подов только если она в группе
                 statusMap.put(systemName, createZeroPodsStatusView(systemName));
@@ -118,7 +113,7 @@ public class StatusPageController {
                     totalOnline += status.getOnlineCount();
                     totalOffline += status.getOfflineCount();
                     totalInstances += status.getTotalCount();
-                } else if (configsByName.containsKey(systemName)) {
+                } else if (registeredSystems.contains(systemName)) {
                     // Заглушка зарегистрирована в конфигах, но не имеет инстансов (0 подов)
                     groupSystems.add(createZeroPodsStatusView(systemName));
                     // totalOnline, totalOffline, totalInstances остаются 0
@@ -5,6 +5,8 @@ import com.mockcontroller.model.TemplateRequest;
 import com.mockcontroller.service.ConfigService;
 import com.mockcontroller.service.TemplateService;
 import com.mockcontroller.util.SystemNameUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -139,10 +141,22 @@ public class TemplateApiController {
         }
     }
 
+    /**
+     * Применение шаблона к текущему конфигу. If-Match с версией конфига (v3, 3 или "v3"):
+     * если конфиг изменился после чтения - 412, шаблон не применяется. Без If-Match шаблон
+     * применяется поверх последней версии.
+     */
     @PostMapping("/{id}/apply")
     public ResponseEntity<Void> applyTemplate(
             @PathVariable String id,
-            @RequestParam String systemName) {
+            @RequestParam String systemName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Integer expectedVersion;
+        try {
+            expectedVersion = ConfigService.parseExpectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Template template = templateService.findById(id)
                     .orElseThrow(() -> new IllegalArgumentException("Template not found"));
@@ -152,8 +166,11 @@ public class TemplateApiController {
             }
 
             // Применяем шаблон к конфигу
-            configService.updateCurrentConfig(systemName, template.getConfig());
+            configService.updateCurrentConfig(systemName, template.getConfig(), expectedVersion);
             return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            // С If-Match - изменение поверх устаревшей версии, без него - не удалось записать из-за параллельных изменений
+            return ResponseEntity.status(expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.mockcontroller.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class CheckUpdateResponse {
@@ -10,6 +11,14 @@ public class CheckUpdateResponse {
     @JsonProperty(value = "currentVersion")
     private String currentVersion;
 
+    @JsonProperty(value = "configDigest")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String configDigest;
+
+    @JsonProperty(value = "needConfig")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean needConfig;
+
     public CheckUpdateResponse() {
     }
 
@@ -18,6 +27,21 @@ public class CheckUpdateResponse {
         this.currentVersion = currentVersion;
     }
 
+    public CheckUpdateResponse(boolean needUpdate, String currentVersion, String configDigest) {
+        this.needUpdate = needUpdate;
+        this.currentVersion = currentVersion;
+        this.configDigest = configDigest;
+    }
+
+    /**
+     * Ответ checkVersion, когда серверу нужен полный конфиг заглушки (полный checkUpdate)
+     */
+    public static CheckUpdateResponse configRequired(String currentVersion, String configDigest) {
+        CheckUpdateResponse response = new CheckUpdateResponse(false, currentVersion, configDigest);
+        response.setNeedConfig(true);
+        return response;
+    }
+
     public boolean isNeedUpdate() {
         return needUpdate;
     }
@@ -33,5 +57,20 @@ public class CheckUpdateResponse {
     public void setCurrentVersion(String currentVersion) {
         this.currentVersion = currentVersion;
     }
-}
 
+    public String getConfigDigest() {
+        return configDigest;
+    }
+
+    public void setConfigDigest(String configDigest) {
+        this.configDigest = configDigest;
+    }
+
+    public Boolean getNeedConfig() {
+        return needConfig;
+    }
+
+    public void setNeedConfig(Boolean needConfig) {
+        this.needConfig = needConfig;
+    }
+}
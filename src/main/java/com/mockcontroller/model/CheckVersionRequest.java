@@ -0,0 +1,39 @@
+package com.mockcontroller.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class CheckVersionRequest {
+
+    @JsonProperty(value = "SystemName", required = true)
+    private String systemName;
+
+    @JsonProperty(value = "version", required = true)
+    private String version;
+
+    @JsonProperty(value = "configDigest")
+    private String configDigest;
+
+    public String getSystemName() {
+        return systemName;
+    }
+
+    public void setSystemName(String systemName) {
+        this.systemName = systemName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getConfigDigest() {
+        return configDigest;
+    }
+
+    public void setConfigDigest(String configDigest) {
+        this.configDigest = configDigest;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mockcontroller.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -12,8 +13,19 @@ public class ConfigResponse {
     private String version;
 
     @JsonProperty(value = "config")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private JsonNode config;
 
+    // Версия, от которой построен patch (запрос с since)
+    @JsonProperty(value = "baseVersion")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String baseVersion;
+
+    // Merge patch (RFC 7386) от baseVersion до version - вместо config
+    @JsonProperty(value = "patch")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private JsonNode patch;
+
     @JsonProperty(value = "updatedAt")
     private String updatedAt;
 
@@ -27,6 +39,16 @@ public class ConfigResponse {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Ответ с разницей: patch применяется к конфигу версии baseVersion и дает конфиг версии version
+     */
+    public static ConfigResponse delta(String systemName, String version, String baseVersion, JsonNode patch, String updatedAt) {
+        ConfigResponse response = new ConfigResponse(systemName, version, null, updatedAt);
+        response.baseVersion = baseVersion;
+        response.patch = patch;
+        return response;
+    }
+
     public String getSystemName() {
         return systemName;
     }
@@ -51,6 +73,22 @@ public class ConfigResponse {
         this.config = config;
     }
 
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(String baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public JsonNode getPatch() {
+        return patch;
+    }
+
+    public void setPatch(JsonNode patch) {
+        this.patch = patch;
+    }
+
     public String getUpdatedAt() {
         return updatedAt;
     }
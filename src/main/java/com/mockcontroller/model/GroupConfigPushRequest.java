@@ -0,0 +1,34 @@
+package com.mockcontroller.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * Групповая отправка конфигов: для каждой системы группы задается новый конфиг или ID шаблона
+ */
+public class GroupConfigPushRequest {
+    // systemName -> новый текущий конфиг
+    private Map<String, JsonNode> configs;
+    // systemName -> ID шаблона этой системы
+    private Map<String, String> templates;
+
+    public GroupConfigPushRequest() {
+    }
+
+    public Map<String, JsonNode> getConfigs() {
+        return configs;
+    }
+
+    public void setConfigs(Map<String, JsonNode> configs) {
+        this.configs = configs;
+    }
+
+    public Map<String, String> getTemplates() {
+        return templates;
+    }
+
+    public void setTemplates(Map<String, String> templates) {
+        this.templates = templates;
+    }
+}
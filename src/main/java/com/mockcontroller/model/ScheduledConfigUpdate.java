@@ -13,6 +13,10 @@ public class ScheduledConfigUpdate {
     private String comment;
     private Boolean applied;
     private LocalDateTime appliedAt;
+    private Long lagMs;
+    private String scenarioId;
+    private String groupId;
+    private String runId;
 
     public ScheduledConfigUpdate() {
     }
@@ -97,6 +101,38 @@ public class ScheduledConfigUpdate {
     public void setAppliedAt(LocalDateTime appliedAt) {
         this.appliedAt = appliedAt;
     }
+
+    public Long getLagMs() {
+        return lagMs;
+    }
+
+    public void setLagMs(Long lagMs) {
+        this.lagMs = lagMs;
+    }
+
+    public String getScenarioId() {
+        return scenarioId;
+    }
+
+    public void setScenarioId(String scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
 }
 
 
@@ -9,6 +9,11 @@ public class StoredConfig {
     private String systemName;
     private JsonNode startConfig;
     private JsonNode currentConfig;
+    // Типизированные представления конфигов, строятся один раз при чтении версии
+    private TypedConfig startTyped = TypedConfig.EMPTY;
+    private TypedConfig currentTyped = TypedConfig.EMPTY;
+    private long startConfigDigest;
+    private long currentConfigDigest;
     private Instant updatedAt;
     private int version;
 
@@ -48,6 +53,38 @@ public class StoredConfig {
         this.currentConfig = currentConfig;
     }
 
+    public TypedConfig getStartTyped() {
+        return startTyped;
+    }
+
+    public void setStartTyped(TypedConfig startTyped) {
+        this.startTyped = startTyped;
+    }
+
+    public TypedConfig getCurrentTyped() {
+        return currentTyped;
+    }
+
+    public void setCurrentTyped(TypedConfig currentTyped) {
+        this.currentTyped = currentTyped;
+    }
+
+    public long getStartConfigDigest() {
+        return startConfigDigest;
+    }
+
+    public void setStartConfigDigest(long startConfigDigest) {
+        this.startConfigDigest = startConfigDigest;
+    }
+
+    public long getCurrentConfigDigest() {
+        return currentConfigDigest;
+    }
+
+    public void setCurrentConfigDigest(long currentConfigDigest) {
+        this.currentConfigDigest = currentConfigDigest;
+    }
+
     public Instant getUpdatedAt() {
         return updatedAt;
     }
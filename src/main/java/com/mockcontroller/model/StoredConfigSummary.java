@@ -0,0 +1,16 @@
+package com.mockcontroller.model;
+
+import java.time.Instant;
+
+/**
+ * Проекция конфига для списков и счетчиков: только имя, версия и время обновления.
+ * JSON-колонки конфигов не читаются из базы и не разбираются.
+ */
+public interface StoredConfigSummary {
+
+    String getSystemName();
+
+    int getVersion();
+
+    Instant getUpdatedAt();
+}
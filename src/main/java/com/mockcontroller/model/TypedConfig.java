@@ -0,0 +1,309 @@
+package com.mockcontroller.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Компактное неизменяемое типизированное представление конфига заглушки.
+ * Строится один раз на версию: ключи секций отсортированы и интернированы в общей таблице
+ * (у всех версий и подов одной системы одни и те же имена параметров), значения delays,
+ * intParams и booleanVariables хранятся в примитивных массивах. Сравнение и поиск по ключу
+ * не создают объектов.
+ *
+ * JSON-дерево конфига при этом сохраняется для отдачи заглушкам и страницы конфига: типизированная
+ * модель не различает "2000" и 2000, не сохраняет порядок ключей и не содержит секций, о которых
+ * контроллер не знает.
+ */
+public final class TypedConfig {
+
+    public static final TypedConfig EMPTY = new TypedConfig(IntSection.EMPTY, StringSection.EMPTY,
+            IntSection.EMPTY, BooleanSection.EMPTY, null);
+
+    // Общая таблица имен параметров: одинаковые ключи разных версий ссылаются на один String
+    private static final ConcurrentMap<String, String> KEY_TABLE = new ConcurrentHashMap<>();
+
+    private final IntSection delays;
+    private final StringSection stringParams;
+    private final IntSection intParams;
+    private final BooleanSection booleanVariables;
+    private final String loggingLv;
+
+    private TypedConfig(IntSection delays, StringSection stringParams, IntSection intParams,
+                        BooleanSection booleanVariables, String loggingLv) {
+        this.delays = delays;
+        this.stringParams = stringParams;
+        this.intParams = intParams;
+        this.booleanVariables = booleanVariables;
+        this.loggingLv = loggingLv;
+    }
+
+    /**
+     * Строит модель с валидацией: delays - целые неотрицательные числа, intParams - целые числа,
+     * booleanVariables - булевы значения или строки 'true'/'false'
+     *
+     * @throws IllegalArgumentException если значение не проходит валидацию
+     */
+    public static TypedConfig of(JsonNode config) {
+        return build(config, true);
+    }
+
+    /**
+     * Строит модель для уже сохраненного конфига: невалидные значения пропускаются.
+     * Такая модель годится только для сравнения и поиска по ключу - для показа конфига
+     * пользователю используется JSON-дерево, где эти значения видны.
+     */
+    public static TypedConfig lenient(JsonNode config) {
+        return build(config, false);
+    }
+
+    public IntSection getDelays() { return delays; }
+    public StringSection getStringParams() { return stringParams; }
+    public IntSection getIntParams() { return intParams; }
+    public BooleanSection getBooleanVariables() { return booleanVariables; }
+    public String getLoggingLv() { return loggingLv; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TypedConfig other)) {
+            return false;
+        }
+        return delays.equals(other.delays)
+                && stringParams.equals(other.stringParams)
+                && intParams.equals(other.intParams)
+                && booleanVariables.equals(other.booleanVariables)
+                && Objects.equals(loggingLv, other.loggingLv);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(delays, stringParams, intParams, booleanVariables, loggingLv);
+    }
+
+    private static TypedConfig build(JsonNode config, boolean strict) {
+        if (config == null || !config.isObject()) {
+            return EMPTY;
+        }
+        JsonNode logging = config.get("loggingLv");
+        return new TypedConfig(
+                buildInts(config.get("delays"), strict, true, "Значение задержки"),
+                buildStrings(config.get("stringParams")),
+                buildInts(config.get("intParams"), strict, false, "Значение целочисленного параметра"),
+                buildBooleans(config.get("booleanVariables"), strict),
+                logging != null ? logging.asText() : null);
+    }
+
+    private static IntSection buildInts(JsonNode section, boolean strict, boolean nonNegative, String label) {
+        if (section == null || !section.isObject() || section.isEmpty()) {
+            return IntSection.EMPTY;
+        }
+        String[] keys = sortedKeys(section);
+        int[] values = new int[keys.length];
+        int count = 0;
+        for (String key : keys) {
+            Integer value = parseInt(section.get(key));
+            if (value == null) {
+                if (strict) {
+                    throw new IllegalArgumentException(label + " '" + key + "' должно быть целым числом");
+                }
+                continue;
+            }
+            if (nonNegative && value < 0) {
+                if (strict) {
+                    throw new IllegalArgumentException(label + " '" + key + "' должно быть неотрицательным числом");
+                }
+                continue;
+            }
+            keys[count] = key;
+            values[count++] = value;
+        }
+        return new IntSection(Arrays.copyOf(keys, count), Arrays.copyOf(values, count));
+    }
+
+    private static StringSection buildStrings(JsonNode section) {
+        if (section == null || !section.isObject() || section.isEmpty()) {
+            return StringSection.EMPTY;
+        }
+        String[] keys = sortedKeys(section);
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = section.get(keys[i]).asText();
+        }
+        return new StringSection(keys, values);
+    }
+
+    private static BooleanSection buildBooleans(JsonNode section, boolean strict) {
+        if (section == null || !section.isObject() || section.isEmpty()) {
+            return BooleanSection.EMPTY;
+        }
+        String[] keys = sortedKeys(section);
+        boolean[] values = new boolean[keys.length];
+        int count = 0;
+        for (String key : keys) {
+            JsonNode valueNode = section.get(key);
+            Boolean value = null;
+            if (valueNode.isBoolean()) {
+                value = valueNode.booleanValue();
+            } else if (valueNode.isTextual()) {
+                String textValue = valueNode.asText().toLowerCase().trim();
+                if ("true".equals(textValue) || "false".equals(textValue)) {
+                    value = "true".equals(textValue);
+                } else if (strict) {
+                    throw new IllegalArgumentException("Значение булевой переменной '" + key
+                            + "' должно быть 'true' или 'false', получено: " + valueNode.asText());
+                }
+            } else if (strict) {
+                throw new IllegalArgumentException("Значение булевой переменной '" + key
+                        + "' должно быть булевым значением или строкой 'true'/'false'");
+            }
+            if (value != null) {
+                keys[count] = key;
+                values[count++] = value;
+            }
+        }
+        return new BooleanSection(Arrays.copyOf(keys, count), Arrays.copyOf(values, count));
+    }
+
+    /**
+     * @return целое значение или null, если значение не является целым числом int
+     */
+    private static Integer parseInt(JsonNode valueNode) {
+        if (valueNode.isNumber()) {
+            return valueNode.isInt() ? valueNode.intValue() : null;
+        }
+        if (valueNode.isTextual()) {
+            try {
+                return Integer.parseInt(valueNode.asText());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String[] sortedKeys(JsonNode section) {
+        String[] keys = new String[section.size()];
+        Iterator<Map.Entry<String, JsonNode>> fields = section.fields();
+        int i = 0;
+        while (fields.hasNext()) {
+            keys[i++] = intern(fields.next().getKey());
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static String intern(String key) {
+        String existing = KEY_TABLE.putIfAbsent(key, key);
+        return existing != null ? existing : key;
+    }
+
+    /**
+     * Поиск ключа в отсортированном массиве
+     *
+     * @return индекс или отрицательное число, если ключа нет
+     */
+    private static int indexOf(String[] keys, String key) {
+        return Arrays.binarySearch(keys, key);
+    }
+
+    /**
+     * Секция с целыми значениями (delays, intParams)
+     */
+    public static final class IntSection {
+        static final IntSection EMPTY = new IntSection(new String[0], new int[0]);
+
+        private final String[] keys;
+        private final int[] values;
+
+        private IntSection(String[] keys, int[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public int size() { return keys.length; }
+        public String key(int index) { return keys[index]; }
+        public int value(int index) { return values[index]; }
+        public int indexOf(String key) { return TypedConfig.indexOf(keys, key); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IntSection other
+                    && Arrays.equals(keys, other.keys) && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * Секция со строковыми значениями (stringParams)
+     */
+    public static final class StringSection {
+        static final StringSection EMPTY = new StringSection(new String[0], new String[0]);
+
+        private final String[] keys;
+        private final String[] values;
+
+        private StringSection(String[] keys, String[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public int size() { return keys.length; }
+        public String key(int index) { return keys[index]; }
+        public String value(int index) { return values[index]; }
+        public int indexOf(String key) { return TypedConfig.indexOf(keys, key); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StringSection other
+                    && Arrays.equals(keys, other.keys) && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * Секция с булевыми значениями (booleanVariables)
+     */
+    public static final class BooleanSection {
+        static final BooleanSection EMPTY = new BooleanSection(new String[0], new boolean[0]);
+
+        private final String[] keys;
+        private final boolean[] values;
+
+        private BooleanSection(String[] keys, boolean[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public int size() { return keys.length; }
+        public String key(int index) { return keys[index]; }
+        public boolean value(int index) { return values[index]; }
+        public int indexOf(String key) { return TypedConfig.indexOf(keys, key); }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BooleanSection other
+                    && Arrays.equals(keys, other.keys) && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+        }
+    }
+}
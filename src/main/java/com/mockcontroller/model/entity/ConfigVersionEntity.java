@@ -0,0 +1,96 @@
+package com.mockcontroller.model.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Запись журнала версий конфига (только добавление): для каждой версии хранится merge patch
+ * относительно предыдущей версии или полный конфиг (первая версия, а также изменения,
+ * которые нельзя выразить патчем).
+ */
+@Entity
+@Table(name = "config_versions", indexes = {
+    @Index(name = "idx_config_versions_system_version", columnList = "system_name, version")
+})
+public class ConfigVersionEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false, length = 36)
+    private String id;
+
+    @Column(name = "system_name", nullable = false, length = 255)
+    private String systemName;
+
+    @Column(name = "version", nullable = false)
+    private int version;
+
+    // Merge patch (RFC 7386) от предыдущей версии или полный конфиг, если fullSnapshot = true
+    @Column(name = "patch", columnDefinition = "TEXT", nullable = false)
+    private String patchJson;
+
+    @Column(name = "full_snapshot", nullable = false)
+    private boolean fullSnapshot;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public ConfigVersionEntity() {
+    }
+
+    public ConfigVersionEntity(String systemName, int version, String patchJson, boolean fullSnapshot, Instant createdAt) {
+        this.systemName = systemName;
+        this.version = version;
+        this.patchJson = patchJson;
+        this.fullSnapshot = fullSnapshot;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSystemName() {
+        return systemName;
+    }
+
+    public void setSystemName(String systemName) {
+        this.systemName = systemName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getPatchJson() {
+        return patchJson;
+    }
+
+    public void setPatchJson(String patchJson) {
+        this.patchJson = patchJson;
+    }
+
+    public boolean isFullSnapshot() {
+        return fullSnapshot;
+    }
+
+    public void setFullSnapshot(boolean fullSnapshot) {
+        this.fullSnapshot = fullSnapshot;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -5,7 +5,14 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "scheduled_config_updates")
+@Table(name = "scheduled_config_updates", indexes = {
+    @Index(name = "idx_scheduled_updates_applied_time", columnList = "applied, scheduled_time"),
+    @Index(name = "idx_scheduled_updates_group_time", columnList = "group_id, applied, scheduled_time"),
+    @Index(name = "idx_scheduled_updates_group_applied_at", columnList = "group_id, applied, applied_at"),
+    @Index(name = "idx_scheduled_updates_applied_at", columnList = "applied, applied_at"),
+    @Index(name = "idx_scheduled_updates_scenario", columnList = "scenario_id"),
+    @Index(name = "idx_scheduled_updates_run", columnList = "run_id")
+})
 public class ScheduledConfigUpdateEntity {
 
     @Id
@@ -33,6 +40,20 @@ public class ScheduledConfigUpdateEntity {
     @Column(name = "applied_at")
     private LocalDateTime appliedAt;
 
+    // Опоздание применения относительно scheduled_time в миллисекундах (заполняется при применении)
+    @Column(name = "lag_ms")
+    private Long lagMs;
+
+    // Сценарий, группа и запуск сценария, которым создано обновление (null - обновление не из сценария)
+    @Column(name = "scenario_id", length = 36)
+    private String scenarioId;
+
+    @Column(name = "group_id", length = 36)
+    private String groupId;
+
+    @Column(name = "run_id", length = 36)
+    private String runId;
+
     @PrePersist
     protected void onCreate() {
         if (id == null || id.isEmpty()) {
@@ -128,5 +149,37 @@ public class ScheduledConfigUpdateEntity {
     public void setAppliedAt(LocalDateTime appliedAt) {
         this.appliedAt = appliedAt;
     }
+
+    public Long getLagMs() {
+        return lagMs;
+    }
+
+    public void setLagMs(Long lagMs) {
+        this.lagMs = lagMs;
+    }
+
+    public String getScenarioId() {
+        return scenarioId;
+    }
+
+    public void setScenarioId(String scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
 }
 
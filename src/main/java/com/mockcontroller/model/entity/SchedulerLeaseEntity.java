@@ -0,0 +1,53 @@
+package com.mockcontroller.model.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Аренда партиции планировщика: запланированные обновления системы применяет только реплика,
+ * владеющая партицией hash(system_name) mod app.scheduler.partitions. Владелец продлевает аренду
+ * heartbeat-ом; просроченную аренду забирает другая реплика.
+ * Таблица создается Hibernate, запросы к ней выполняет SchedulerLeaseRepository.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLeaseEntity {
+
+    @Id
+    @Column(name = "partition_id", nullable = false)
+    private int partitionId;
+
+    // Реплика-владелец (null - партиция свободна)
+    @Column(name = "owner", length = 36)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public SchedulerLeaseEntity() {
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    public void setPartitionId(int partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
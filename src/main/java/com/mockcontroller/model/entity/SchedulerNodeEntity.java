@@ -0,0 +1,39 @@
+package com.mockcontroller.model.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Живая реплика планировщика: по количеству живых реплик каждая считает свою долю партиций.
+ * Таблица создается Hibernate, запросы к ней выполняет SchedulerLeaseRepository.
+ */
+@Entity
+@Table(name = "scheduler_nodes")
+public class SchedulerNodeEntity {
+
+    @Id
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public SchedulerNodeEntity() {
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -17,6 +17,12 @@ public class StoredConfigEntity {
     @Column(name = "current_config", columnDefinition = "TEXT", nullable = false)
     private String currentConfigJson;
 
+    @Column(name = "start_config_digest")
+    private Long startConfigDigest;
+
+    @Column(name = "current_config_digest")
+    private Long currentConfigDigest;
+
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
@@ -58,6 +64,22 @@ public class StoredConfigEntity {
         this.currentConfigJson = currentConfigJson;
     }
 
+    public Long getStartConfigDigest() {
+        return startConfigDigest;
+    }
+
+    public void setStartConfigDigest(Long startConfigDigest) {
+        this.startConfigDigest = startConfigDigest;
+    }
+
+    public Long getCurrentConfigDigest() {
+        return currentConfigDigest;
+    }
+
+    public void setCurrentConfigDigest(Long currentConfigDigest) {
+        this.currentConfigDigest = currentConfigDigest;
+    }
+
     public Instant getUpdatedAt() {
         return updatedAt;
     }
@@ -0,0 +1,22 @@
+package com.mockcontroller.repository;
+
+import com.mockcontroller.model.entity.ConfigVersionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConfigVersionRepository extends JpaRepository<ConfigVersionEntity, String> {
+
+    /**
+     * Записи журнала системы с версиями в диапазоне [fromVersion, toVersion] по возрастанию версии
+     */
+    List<ConfigVersionEntity> findBySystemNameAndVersionBetweenOrderByVersionAsc(String systemName, int fromVersion, int toVersion);
+
+    @Modifying
+    @Query("DELETE FROM ConfigVersionEntity v WHERE v.systemName = :systemName")
+    void deleteBySystemName(String systemName);
+}
@@ -2,6 +2,7 @@ package com.mockcontroller.repository;
 
 import com.mockcontroller.model.entity.GroupEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,5 +12,12 @@ import java.util.Optional;
 public interface GroupRepository extends JpaRepository<GroupEntity, String> {
     List<GroupEntity> findAllByOrderByNameAsc();
     Optional<GroupEntity> findByNameIgnoreCase(String name);
+    
+    // Группы вместе с заглушками одним запросом (загрузка каталога групп вне транзакции)
+    @Query("SELECT DISTINCT g FROM GroupEntity g LEFT JOIN FETCH g.systems")
+    List<GroupEntity> findAllWithSystems();
+    
+    @Query("SELECT g FROM GroupEntity g LEFT JOIN FETCH g.systems WHERE g.id = :id")
+    Optional<GroupEntity> findWithSystemsById(String id);
 }
 
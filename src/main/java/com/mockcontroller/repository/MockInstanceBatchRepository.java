@@ -0,0 +1,79 @@
+package com.mockcontroller.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетная запись healthcheck инстансов одним multi-row upsert.
+ * JPA здесь не используется: на каждый healthcheck он делает SELECT и отдельный INSERT/UPDATE.
+ */
+@Repository
+public class MockInstanceBatchRepository {
+
+    // Ограничение на количество строк в одном INSERT, чтобы не превышать лимит параметров JDBC
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String UPSERT_PREFIX =
+        "INSERT INTO mock_instances (system_name, instance_id, last_healthcheck_time, created_at) VALUES ";
+
+    private static final String UPSERT_SUFFIX =
+        " ON CONFLICT (system_name, instance_id) DO UPDATE SET last_healthcheck_time = " +
+        "GREATEST(mock_instances.last_healthcheck_time, EXCLUDED.last_healthcheck_time)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MockInstanceBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставляет или обновляет время последнего healthcheck для набора инстансов
+     *
+     * @return количество выполненных SQL-запросов
+     */
+    public int upsertHealthchecks(List<HealthcheckRow> rows) {
+        int statements = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<HealthcheckRow> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            StringBuilder sql = new StringBuilder(UPSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (int i = 0; i < chunk.size(); i++) {
+                HealthcheckRow row = chunk.get(i);
+                if (i > 0) {
+                    sql.append(',');
+                }
+                sql.append("(?,?,?,?)");
+                Timestamp time = Timestamp.from(row.getLastHealthcheckTime());
+                args.add(row.getSystemName());
+                args.add(row.getInstanceId());
+                args.add(time);
+                args.add(time);
+            }
+            sql.append(UPSERT_SUFFIX);
+            jdbcTemplate.update(sql.toString(), args.toArray());
+            statements++;
+        }
+        return statements;
+    }
+
+    public static class HealthcheckRow {
+        private final String systemName;
+        private final String instanceId;
+        private final Instant lastHealthcheckTime;
+
+        public HealthcheckRow(String systemName, String instanceId, Instant lastHealthcheckTime) {
+            this.systemName = systemName;
+            this.instanceId = instanceId;
+            this.lastHealthcheckTime = lastHealthcheckTime;
+        }
+
+        public String getSystemName() { return systemName; }
+        public String getInstanceId() { return instanceId; }
+        public Instant getLastHealthcheckTime() { return lastHealthcheckTime; }
+    }
+}
@@ -4,6 +4,7 @@ import com.mockcontroller.model.entity.ScenarioStepEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +12,11 @@ public interface ScenarioStepRepository extends JpaRepository<ScenarioStepEntity
     
     List<ScenarioStepEntity> findByScenarioIdOrderByStepOrderAsc(String scenarioId);
     
+    /**
+     * Шаги нескольких сценариев одним запросом (загрузка списка сценариев без N+1)
+     */
+    List<ScenarioStepEntity> findByScenarioIdInOrderByScenarioIdAscStepOrderAsc(Collection<String> scenarioIds);
+    
     void deleteByScenarioId(String scenarioId);
     
     void deleteByTemplateId(String templateId);
@@ -0,0 +1,49 @@
+package com.mockcontroller.repository;
+
+import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Пакетная вставка запланированных обновлений (запуск сценария со многими шагами).
+ * Все строки уходят одним JDBC batch вместо отдельного INSERT через JPA на каждый шаг.
+ */
+@Repository
+public class ScheduledConfigUpdateBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO scheduled_config_updates " +
+        "(id, system_name, new_config, scheduled_time, created_at, comment, scenario_id, group_id, run_id, applied) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduledConfigUpdateBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставляет новые обновления. id и createdAt должны быть заполнены заранее (см. конструктор сущности).
+     */
+    public void insertAll(List<ScheduledConfigUpdateEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entities, BATCH_SIZE, (ps, entity) -> {
+            ps.setString(1, entity.getId());
+            ps.setString(2, entity.getSystemName());
+            ps.setString(3, entity.getNewConfigJson());
+            ps.setTimestamp(4, Timestamp.valueOf(entity.getScheduledTime()));
+            ps.setTimestamp(5, Timestamp.valueOf(entity.getCreatedAt()));
+            ps.setString(6, entity.getComment());
+            ps.setString(7, entity.getScenarioId());
+            ps.setString(8, entity.getGroupId());
+            ps.setString(9, entity.getRunId());
+        });
+    }
+}
@@ -1,12 +1,14 @@
 package com.mockcontroller.repository;
 
 import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,9 +18,19 @@ public interface ScheduledConfigUpdateRepository extends JpaRepository<Scheduled
     
     boolean existsBySystemName(String systemName);
     
-    // Находим обновления, которые должны быть применены (время наступило или прошло) и еще не применены
-    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.scheduledTime <= :now AND (s.applied = false OR s.applied IS NULL) ORDER BY s.scheduledTime ASC")
-    List<ScheduledConfigUpdateEntity> findDueUpdates(LocalDateTime now);
+    // Находим обновления партиций этой реплики, которые должны быть применены (время наступило или прошло) и еще не применены.
+    // Партиция - hash(system_name) mod partitions (см. SchedulerLeaseManager). Строки блокируются с SKIP LOCKED:
+    // обновления, которые уже применяет таймер, резервный опрос или прежний владелец партиции, пропускаются
+    @Query(value = "SELECT * FROM scheduled_config_updates WHERE scheduled_time <= :now AND (applied = false OR applied IS NULL) " +
+           "AND mod(hashtext(system_name) & 2147483647, :partitions) IN (:ownedPartitions) " +
+           "ORDER BY scheduled_time ASC FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ScheduledConfigUpdateEntity> findDueUpdates(LocalDateTime now, int partitions, Collection<Integer> ownedPartitions);
+    
+    /**
+     * Все не примененные обновления (для загрузки в таймер при старте)
+     */
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.applied = false OR s.applied IS NULL ORDER BY s.scheduledTime ASC")
+    List<ScheduledConfigUpdateEntity> findPendingUpdates();
     
     @Modifying
     @Query("DELETE FROM ScheduledConfigUpdateEntity s WHERE s.systemName = :systemName")
@@ -31,9 +43,71 @@ public interface ScheduledConfigUpdateRepository extends JpaRepository<Scheduled
     List<ScheduledConfigUpdateEntity> findBySystemNameAndScheduledTime(String systemName, LocalDateTime scheduledTime);
     
     /**
-     * Получает все обновления, отсортированные по времени (для истории)
+     * Не примененные обновления нескольких систем в интервале времени (поиск дубликатов для пакета шагов одним запросом)
+     */
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.systemName IN :systemNames AND s.scheduledTime BETWEEN :from AND :to AND (s.applied = false OR s.applied IS NULL) ORDER BY s.createdAt ASC")
+    List<ScheduledConfigUpdateEntity> findPendingBySystemNamesAndTimeRange(Collection<String> systemNames, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Обновления из сценариев, созданные до появления колонки group_id (для однократного заполнения при старте)
+     */
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.groupId IS NULL AND s.comment LIKE 'Сценарий:%'")
+    List<ScheduledConfigUpdateEntity> findLegacyScenarioUpdates();
+    
+    // Keyset-пагинация истории сценариев: следующая страница начинается строго после последней записи предыдущей,
+    // поэтому стоимость запроса зависит от размера страницы, а не от объема истории
+    
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.groupId = :groupId AND (s.applied = false OR s.applied IS NULL) " +
+           "AND (s.scheduledTime > :afterTime OR (s.scheduledTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.scheduledTime ASC, s.id ASC")
+    List<ScheduledConfigUpdateEntity> findScheduledHistoryPage(String groupId, LocalDateTime afterTime, String afterId, Pageable pageable);
+    
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.groupId IS NOT NULL AND (s.applied = false OR s.applied IS NULL) " +
+           "AND (s.scheduledTime > :afterTime OR (s.scheduledTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.scheduledTime ASC, s.id ASC")
+    List<ScheduledConfigUpdateEntity> findScheduledHistoryPageAllGroups(LocalDateTime afterTime, String afterId, Pageable pageable);
+    
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.groupId = :groupId AND s.applied = true " +
+           "AND (s.appliedAt < :beforeTime OR (s.appliedAt = :beforeTime AND s.id < :beforeId)) " +
+           "ORDER BY s.appliedAt DESC, s.id DESC")
+    List<ScheduledConfigUpdateEntity> findCompletedHistoryPage(String groupId, LocalDateTime beforeTime, String beforeId, Pageable pageable);
+    
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.groupId IS NOT NULL AND s.applied = true " +
+           "AND (s.appliedAt < :beforeTime OR (s.appliedAt = :beforeTime AND s.id < :beforeId)) " +
+           "ORDER BY s.appliedAt DESC, s.id DESC")
+    List<ScheduledConfigUpdateEntity> findCompletedHistoryPageAllGroups(LocalDateTime beforeTime, String beforeId, Pageable pageable);
+    
+    // Опоздание применения (lag_ms) за период: перцентили считаются в PostgreSQL, в приложение приходят только агрегаты.
+    // Строка: [ключ, количество, p50, p95, p99, max, количество опозданий больше sloMs]. Фильтры groupId/runId необязательны
+    
+    @Query(value = "SELECT system_name, COUNT(*), " +
+           "percentile_cont(0.5) WITHIN GROUP (ORDER BY lag_ms), " +
+           "percentile_cont(0.95) WITHIN GROUP (ORDER BY lag_ms), " +
+           "percentile_cont(0.99) WITHIN GROUP (ORDER BY lag_ms), " +
+           "MAX(lag_ms), SUM(CASE WHEN lag_ms > :sloMs THEN 1 ELSE 0 END) " +
+           "FROM scheduled_config_updates WHERE applied = true AND lag_ms IS NOT NULL AND applied_at >= :from " +
+           "AND (CAST(:groupId AS VARCHAR) IS NULL OR group_id = CAST(:groupId AS VARCHAR)) " +
+           "AND (CAST(:runId AS VARCHAR) IS NULL OR run_id = CAST(:runId AS VARCHAR)) " +
+           "GROUP BY system_name ORDER BY system_name", nativeQuery = true)
+    List<Object[]> lagStatsBySystem(LocalDateTime from, String groupId, String runId, long sloMs);
+    
+    @Query(value = "SELECT scenario_id, COUNT(*), " +
+           "percentile_cont(0.5) WITHIN GROUP (ORDER BY lag_ms), " +
+           "percentile_cont(0.95) WITHIN GROUP (ORDER BY lag_ms), " +
+           "percentile_cont(0.99) WITHIN GROUP (ORDER BY lag_ms), " +
+           "MAX(lag_ms), SUM(CASE WHEN lag_ms > :sloMs THEN 1 ELSE 0 END) " +
+           "FROM scheduled_config_updates WHERE applied = true AND lag_ms IS NOT NULL AND applied_at >= :from " +
+           "AND scenario_id IS NOT NULL " +
+           "AND (CAST(:groupId AS VARCHAR) IS NULL OR group_id = CAST(:groupId AS VARCHAR)) " +
+           "AND (CAST(:runId AS VARCHAR) IS NULL OR run_id = CAST(:runId AS VARCHAR)) " +
+           "GROUP BY scenario_id ORDER BY scenario_id", nativeQuery = true)
+    List<Object[]> lagStatsByScenario(LocalDateTime from, String groupId, String runId, long sloMs);
+    
+    /**
+     * Обновления, примененные позже SLO, от самых поздних
      */
-    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.comment LIKE 'Сценарий:%' ORDER BY s.scheduledTime ASC")
-    List<ScheduledConfigUpdateEntity> findAllScenarioUpdates();
+    @Query("SELECT s FROM ScheduledConfigUpdateEntity s WHERE s.applied = true AND s.appliedAt >= :from AND s.lagMs > :sloMs " +
+           "AND (:groupId IS NULL OR s.groupId = :groupId) AND (:runId IS NULL OR s.runId = :runId) " +
+           "ORDER BY s.lagMs DESC")
+    List<ScheduledConfigUpdateEntity> findLateUpdates(LocalDateTime from, String groupId, String runId, long sloMs, Pageable pageable);
 }
-
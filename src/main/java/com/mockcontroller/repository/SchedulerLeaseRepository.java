@@ -0,0 +1,120 @@
+package com.mockcontroller.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Аренды партиций планировщика (scheduler_leases) и heartbeat реплик (scheduler_nodes).
+ * Время аренды считается по часам PostgreSQL (now()), поэтому расхождение часов реплик не влияет на владение.
+ */
+@Repository
+public class SchedulerLeaseRepository {
+
+    private static final String TTL = "? * INTERVAL '1 millisecond'";
+
+    private static final String ENSURE_PARTITIONS_SQL =
+        "INSERT INTO scheduler_leases (partition_id, owner, expires_at) " +
+        "SELECT p, NULL, now() FROM generate_series(0, ? - 1) AS p ON CONFLICT (partition_id) DO NOTHING";
+
+    private static final String HEARTBEAT_NODE_SQL =
+        "INSERT INTO scheduler_nodes (node_id, expires_at) VALUES (?, now() + " + TTL + ") " +
+        "ON CONFLICT (node_id) DO UPDATE SET expires_at = EXCLUDED.expires_at";
+
+    private static final String COUNT_LIVE_NODES_SQL =
+        "SELECT COUNT(*) FROM scheduler_nodes WHERE expires_at > now()";
+
+    private static final String DELETE_DEAD_NODES_SQL =
+        "DELETE FROM scheduler_nodes WHERE expires_at <= now()";
+
+    private static final String RENEW_SQL =
+        "UPDATE scheduler_leases SET expires_at = now() + " + TTL + " " +
+        "WHERE owner = ? AND partition_id < ? RETURNING partition_id";
+
+    // Свободные и просроченные партиции; строки, которые в этот момент забирает другая реплика, пропускаются
+    private static final String CLAIM_SQL =
+        "UPDATE scheduler_leases l SET owner = ?, expires_at = now() + " + TTL + " " +
+        "WHERE l.partition_id IN (" +
+        "  SELECT partition_id FROM scheduler_leases" +
+        "  WHERE partition_id < ? AND (owner IS NULL OR expires_at <= now())" +
+        "  ORDER BY partition_id LIMIT ? FOR UPDATE SKIP LOCKED" +
+        ") RETURNING l.partition_id";
+
+    private static final String RELEASE_SQL =
+        "UPDATE scheduler_leases SET owner = NULL, expires_at = now() WHERE owner = ? AND partition_id = ANY(?)";
+
+    private static final String RELEASE_ALL_SQL =
+        "UPDATE scheduler_leases SET owner = NULL, expires_at = now() WHERE owner = ?";
+
+    private static final String DELETE_NODE_SQL =
+        "DELETE FROM scheduler_nodes WHERE node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLeaseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Создает строки партиций 0..partitions-1, которых еще нет
+     */
+    public void ensurePartitions(int partitions) {
+        jdbcTemplate.update(ENSURE_PARTITIONS_SQL, partitions);
+    }
+
+    /**
+     * Продлевает heartbeat реплики
+     *
+     * @return количество живых реплик (включая эту)
+     */
+    public int heartbeatNode(String nodeId, long ttlMs) {
+        jdbcTemplate.update(HEARTBEAT_NODE_SQL, nodeId, ttlMs);
+        jdbcTemplate.update(DELETE_DEAD_NODES_SQL);
+        Integer live = jdbcTemplate.queryForObject(COUNT_LIVE_NODES_SQL, Integer.class);
+        return live != null ? Math.max(live, 1) : 1;
+    }
+
+    /**
+     * Продлевает аренды реплики
+     *
+     * @return партиции, которыми реплика по-прежнему владеет
+     */
+    public Set<Integer> renew(String nodeId, long ttlMs, int partitions) {
+        return new HashSet<>(jdbcTemplate.queryForList(RENEW_SQL, Integer.class, ttlMs, nodeId, partitions));
+    }
+
+    /**
+     * Забирает до limit свободных или просроченных партиций
+     *
+     * @return полученные партиции
+     */
+    public Set<Integer> claim(String nodeId, long ttlMs, int partitions, int limit) {
+        return new HashSet<>(jdbcTemplate.queryForList(CLAIM_SQL, Integer.class, nodeId, ttlMs, partitions, limit));
+    }
+
+    /**
+     * Отдает партиции: другие реплики могут забрать их сразу, не дожидаясь истечения аренды
+     */
+    public void release(String nodeId, Collection<Integer> partitionIds) {
+        Integer[] ids = partitionIds.toArray(new Integer[0]);
+        jdbcTemplate.update((Connection connection) -> {
+            PreparedStatement ps = connection.prepareStatement(RELEASE_SQL);
+            ps.setString(1, nodeId);
+            ps.setArray(2, connection.createArrayOf("integer", ids));
+            return ps;
+        });
+    }
+
+    /**
+     * Отдает все партиции реплики и удаляет ее heartbeat (штатная остановка)
+     */
+    public void releaseAll(String nodeId) {
+        jdbcTemplate.update(RELEASE_ALL_SQL, nodeId);
+        jdbcTemplate.update(DELETE_NODE_SQL, nodeId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.mockcontroller.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Атомарная смена текущих конфигов набора систем (групповая отправка конфигов).
+ * Все системы обновляются одним UPDATE ... FROM unnest(...) RETURNING: один запрос к базе
+ * вместо SELECT и UPDATE на каждую систему.
+ */
+@Repository
+public class StoredConfigBatchRepository {
+
+    // previous блокирует строки в порядке system_name (без взаимных блокировок параллельных отправок)
+    // и возвращает текущий конфиг до изменения - он нужен журналу версий
+    private static final String UPDATE_SQL =
+        "WITH incoming AS (" +
+        "  SELECT * FROM unnest(?::text[], ?::text[], ?::bigint[]) AS t(system_name, config, digest)" +
+        "), previous AS (" +
+        "  SELECT s.system_name, s.current_config FROM stored_configs s" +
+        "  WHERE s.system_name IN (SELECT system_name FROM incoming)" +
+        "  ORDER BY s.system_name FOR UPDATE" +
+        ") " +
+        "UPDATE stored_configs s SET current_config = i.config, current_config_digest = i.digest, " +
+        "version = s.version + 1, updated_at = ? " +
+        "FROM incoming i, previous p " +
+        "WHERE s.system_name = i.system_name AND p.system_name = s.system_name " +
+        "RETURNING s.system_name, s.version, s.start_config, s.start_config_digest, p.current_config AS previous_config";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoredConfigBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Заменяет текущие конфиги и увеличивает версии всех систем одним запросом.
+     * Системы, которых нет в базе, в результат не попадают.
+     *
+     * @return обновленные строки
+     */
+    public List<UpdatedConfigRow> updateCurrentConfigs(List<ConfigUpdateRow> rows, Instant updatedAt) {
+        String[] systemNames = new String[rows.size()];
+        String[] configs = new String[rows.size()];
+        Long[] digests = new Long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            systemNames[i] = rows.get(i).getSystemName();
+            configs[i] = rows.get(i).getConfigJson();
+            digests[i] = rows.get(i).getDigest();
+        }
+        return jdbcTemplate.query((Connection connection) -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+            ps.setArray(1, connection.createArrayOf("text", systemNames));
+            ps.setArray(2, connection.createArrayOf("text", configs));
+            ps.setArray(3, connection.createArrayOf("bigint", digests));
+            ps.setTimestamp(4, Timestamp.from(updatedAt));
+            return ps;
+        }, (rs, rowNum) -> {
+            long startDigest = rs.getLong("start_config_digest");
+            return new UpdatedConfigRow(
+                rs.getString("system_name"),
+                rs.getInt("version"),
+                rs.getString("start_config"),
+                rs.wasNull() ? null : startDigest,
+                rs.getString("previous_config"));
+        });
+    }
+
+    /**
+     * Новый текущий конфиг системы
+     */
+    public static class ConfigUpdateRow {
+        private final String systemName;
+        private final String configJson;
+        private final long digest;
+
+        public ConfigUpdateRow(String systemName, String configJson, long digest) {
+            this.systemName = systemName;
+            this.configJson = configJson;
+            this.digest = digest;
+        }
+
+        public String getSystemName() { return systemName; }
+        public String getConfigJson() { return configJson; }
+        public long getDigest() { return digest; }
+    }
+
+    /**
+     * Строка после обновления: новая версия, стартовый конфиг и текущий конфиг до изменения
+     */
+    public static class UpdatedConfigRow {
+        private final String systemName;
+        private final int version;
+        private final String startConfigJson;
+        private final Long startConfigDigest;
+        private final String previousConfigJson;
+
+        public UpdatedConfigRow(String systemName, int version, String startConfigJson,
+                                Long startConfigDigest, String previousConfigJson) {
+            this.systemName = systemName;
+            this.version = version;
+            this.startConfigJson = startConfigJson;
+            this.startConfigDigest = startConfigDigest;
+            this.previousConfigJson = previousConfigJson;
+        }
+
+        public String getSystemName() { return systemName; }
+        public int getVersion() { return version; }
+        public String getStartConfigJson() { return startConfigJson; }
+        public Long getStartConfigDigest() { return startConfigDigest; }
+        public String getPreviousConfigJson() { return previousConfigJson; }
+    }
+}
@@ -1,9 +1,16 @@
 package com.mockcontroller.repository;
 
+import com.mockcontroller.model.StoredConfigSummary;
 import com.mockcontroller.model.entity.StoredConfigEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,5 +19,39 @@ public interface StoredConfigRepository extends JpaRepository<StoredConfigEntity
     Optional<StoredConfigEntity> findBySystemName(String systemName);
     
     boolean existsBySystemName(String systemName);
+    
+    /**
+     * Имя, версия и время обновления всех конфигов (без JSON-колонок) - для списков
+     */
+    List<StoredConfigSummary> findAllProjectedBy();
+    
+    /**
+     * Имена всех зарегистрированных систем
+     */
+    @Query("SELECT s.systemName FROM StoredConfigEntity s")
+    List<String> findAllSystemNames();
+    
+    /**
+     * Записывает следующую версию конфига, только если в базе все еще expectedVersion (compare-and-set).
+     * Новая версия всегда expectedVersion + 1, поэтому RETURNING не нужен. Перед запросом несохраненные
+     * изменения транзакции вызывающего записываются в базу (иначе очистка контекста их потеряет - например,
+     * отметки applied предыдущих обновлений в тике планировщика), после запроса контекст персистентности
+     * очищается: повторное чтение после неудачи вернет строку из базы.
+     *
+     * @return 1 - версия записана, 0 - конфиг уже изменен другим запросом или удален
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StoredConfigEntity s SET s.startConfigJson = :startConfig, s.startConfigDigest = :startDigest, " +
+           "s.currentConfigJson = :currentConfig, s.currentConfigDigest = :currentDigest, " +
+           "s.updatedAt = :updatedAt, s.version = s.version + 1 " +
+           "WHERE s.systemName = :systemName AND s.version = :expectedVersion")
+    int compareAndSetVersion(@Param("systemName") String systemName,
+                             @Param("expectedVersion") int expectedVersion,
+                             @Param("startConfig") String startConfig,
+                             @Param("startDigest") Long startDigest,
+                             @Param("currentConfig") String currentConfig,
+                             @Param("currentDigest") Long currentDigest,
+                             @Param("updatedAt") Instant updatedAt);
 }
 
@@ -0,0 +1,277 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.repository.MockInstanceBatchRepository;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Синхронизация in-memory кэшей между репликами контроллера через PostgreSQL LISTEN/NOTIFY.
+ * Код, который сохраняет конфиги и группы, отправляет NOTIFY в своей транзакции - PostgreSQL
+ * доставляет его слушателям только после коммита и отбрасывает при откате. Каждая реплика слушает
+ * канал на отдельном соединении и перечитывает из базы изменившиеся конфиги.
+ *
+ * Формат сообщения: {@code <nodeId>|<тип>|<ключи через запятую>}, тип - config, config-deleted, group,
+ * scheduled (ключ {@code <id>@<время>} - новое запланированное обновление для таймеров всех реплик),
+ * instances (ключ {@code <время>:<система>:<instanceId>} - записанные в базу healthcheck, чтобы реестр
+ * инстансов каждой реплики видел поды, чьи healthcheck пришли на другие реплики) или instances-removed.
+ */
+@Service
+public class ClusterCacheSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCacheSync.class);
+
+    static final String TYPE_CONFIG = "config";
+    static final String TYPE_CONFIG_DELETED = "config-deleted";
+    static final String TYPE_GROUP = "group";
+    static final String TYPE_SCHEDULED = "scheduled";
+    static final String TYPE_INSTANCES = "instances";
+    static final String TYPE_INSTANCES_REMOVED = "instances-removed";
+
+    // Лимит payload NOTIFY - 8000 байт, ключи упаковываются в сообщения с запасом
+    private static final int MAX_PAYLOAD_CHARS = 7000;
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ConfigCache configCache;
+    private final ConfigVersionLog versionLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledUpdateTimer scheduledUpdateTimer;
+    private final GroupCatalog groupCatalog;
+    private final InstanceRegistry instanceRegistry;
+    // Идентификатор реплики: собственные уведомления не обрабатываются
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${app.cluster.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cluster.channel:mockcontroller_cache}")
+    private String channel;
+
+    @Value("${app.cluster.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cluster.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public ClusterCacheSync(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                            ConfigCache configCache, ConfigVersionLog versionLog,
+                            ApplicationEventPublisher eventPublisher, ScheduledUpdateTimer scheduledUpdateTimer,
+                            GroupCatalog groupCatalog, InstanceRegistry instanceRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.configCache = configCache;
+        this.versionLog = versionLog;
+        this.eventPublisher = eventPublisher;
+        this.scheduledUpdateTimer = scheduledUpdateTimer;
+        this.groupCatalog = groupCatalog;
+        this.instanceRegistry = instanceRegistry;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Сообщает другим репликам, что конфиги систем изменились. Вызывается в транзакции записи.
+     */
+    public void notifyConfigsChanged(Collection<String> systemNames) {
+        send(TYPE_CONFIG, systemNames);
+    }
+
+    public void notifyConfigDeleted(String systemName) {
+        send(TYPE_CONFIG_DELETED, List.of(systemName));
+    }
+
+    public void notifyGroupChanged(String groupId) {
+        send(TYPE_GROUP, List.of(groupId));
+    }
+
+    /**
+     * Сообщает другим репликам о новых запланированных обновлениях: применит их реплика,
+     * владеющая партицией системы, и ее таймер должен сработать в точное время
+     */
+    public void notifyUpdatesScheduled(Map<String, LocalDateTime> scheduledTimeById) {
+        List<String> keys = new ArrayList<>(scheduledTimeById.size());
+        scheduledTimeById.forEach((id, scheduledTime) -> keys.add(id + "@" + scheduledTime));
+        send(TYPE_SCHEDULED, keys);
+    }
+
+    /**
+     * Рассылает другим репликам healthcheck, которые эта реплика записала в базу.
+     * instanceId кодируется, так как может содержать разделители сообщения.
+     */
+    public void notifyHealthchecks(Collection<MockInstanceBatchRepository.HealthcheckRow> rows) {
+        List<String> keys = new ArrayList<>(rows.size());
+        for (MockInstanceBatchRepository.HealthcheckRow row : rows) {
+            keys.add(row.getLastHealthcheckTime().toEpochMilli() + ":" + row.getSystemName() + ":"
+                + URLEncoder.encode(row.getInstanceId(), StandardCharsets.UTF_8));
+        }
+        send(TYPE_INSTANCES, keys);
+    }
+
+    public void notifyInstancesRemoved(String systemName) {
+        send(TYPE_INSTANCES_REMOVED, List.of(systemName));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-cache-sync");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("Cluster cache sync started: node {}, channel {}", nodeId, channel);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void send(String type, Collection<String> keys) {
+        if (!enabled || keys.isEmpty()) {
+            return;
+        }
+        String[] payloads = pack(type, keys).toArray(new String[0]);
+        // Все сообщения уходят одним запросом; в транзакции доставка произойдет после коммита
+        jdbcTemplate.execute((Connection connection) -> {
+            PreparedStatement ps = connection.prepareStatement(NOTIFY_SQL);
+            ps.setString(1, channel);
+            ps.setArray(2, connection.createArrayOf("text", payloads));
+            return ps;
+        }, (PreparedStatementCallback<Void>) ps -> {
+            ps.execute();
+            return null;
+        });
+    }
+
+    private List<String> pack(String type, Collection<String> keys) {
+        String prefix = nodeId + "|" + type + "|";
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(prefix);
+        for (String key : keys) {
+            if (current.length() > prefix.length() && current.length() + key.length() + 1 > MAX_PAYLOAD_CHARS) {
+                payloads.add(current.toString());
+                current = new StringBuilder(prefix);
+            }
+            if (current.length() > prefix.length()) {
+                current.append(',');
+            }
+            current.append(key);
+        }
+        payloads.add(current.toString());
+        return payloads;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Уведомления, пришедшие до подписки или во время переподключения, потеряны - перечитываем кэш
+                configCache.load();
+                groupCatalog.load();
+                instanceRegistry.load();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handleSafely(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Cluster cache sync connection lost, reconnecting in {} ms: {}", reconnectDelayMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handleSafely(String payload) {
+        try {
+            handle(payload);
+        } catch (RuntimeException e) {
+            // Ошибка обработки одного сообщения не должна останавливать слушателя
+            logger.error("Cluster cache sync failed to apply notification {}: {}", payload, e.getMessage(), e);
+        }
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        List<String> keys = Arrays.asList(parts[2].split(","));
+        switch (parts[1]) {
+            case TYPE_CONFIG -> {
+                // Подписчики SSE на этой реплике тоже должны узнать о новой версии
+                for (ConfigCache.CachedConfig cached : configCache.reload(keys)) {
+                    eventPublisher.publishEvent(new ConfigChangedEvent(cached.getSystemName(), cached.getVersion()));
+                }
+            }
+            case TYPE_CONFIG_DELETED -> keys.forEach(systemName -> {
+                configCache.evict(systemName);
+                versionLog.evictCached(systemName);
+            });
+            case TYPE_GROUP -> keys.forEach(groupId -> eventPublisher.publishEvent(new GroupChangedEvent(groupId)));
+            case TYPE_SCHEDULED -> keys.forEach(key -> {
+                int separator = key.indexOf('@');
+                scheduledUpdateTimer.schedule(key.substring(0, separator), LocalDateTime.parse(key.substring(separator + 1)));
+            });
+            case TYPE_INSTANCES -> keys.forEach(key -> {
+                String[] fields = key.split(":", 3);
+                instanceRegistry.record(fields[1], URLDecoder.decode(fields[2], StandardCharsets.UTF_8),
+                    Long.parseLong(fields[0]));
+            });
+            case TYPE_INSTANCES_REMOVED -> keys.forEach(instanceRegistry::removeSystem);
+            default -> logger.debug("Unknown cluster cache sync message type: {}", parts[1]);
+        }
+    }
+}
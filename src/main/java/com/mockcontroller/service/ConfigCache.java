@@ -0,0 +1,160 @@
+package com.mockcontroller.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mockcontroller.model.StoredConfig;
+import com.mockcontroller.model.TypedConfig;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory кэш конфигов заглушек (systemName -> версия и распарсенные стартовый/текущий конфиги).
+ * Заполняется при старте и обновляется write-through из ConfigService при каждом изменении,
+ * чтобы частые опросы checkUpdate не ходили в базу.
+ */
+@Component
+public class ConfigCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigCache.class);
+
+    private final StoredConfigRepository repository;
+    private final ConfigMapper mapper;
+    private final ConcurrentMap<String, CachedConfig> entries = new ConcurrentHashMap<>();
+
+    public ConfigCache(StoredConfigRepository repository, ConfigMapper mapper) {
+        this.repository = repository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Полная загрузка кэша из базы: при старте и после переподключения к каналу синхронизации реплик
+     * (системы, удаленные в базе, убираются из кэша)
+     */
+    @PostConstruct
+    public void load() {
+        Set<String> loaded = new HashSet<>();
+        repository.findAll().stream()
+                .map(mapper::toModel)
+                .filter(stored -> stored.getSystemName() != null)
+                .forEach(stored -> {
+                    merge(CachedConfig.of(stored));
+                    loaded.add(stored.getSystemName());
+                });
+        entries.keySet().retainAll(loaded);
+        logger.info("Config cache loaded: {} systems", entries.size());
+    }
+
+    /**
+     * Перечитывает из базы конфиги, измененные другой репликой
+     *
+     * @return обновленные записи (системы, которых уже нет в базе, убираются из кэша)
+     */
+    public List<CachedConfig> reload(Collection<String> sanitizedNames) {
+        List<CachedConfig> reloaded = new ArrayList<>();
+        Set<String> missing = new HashSet<>(sanitizedNames);
+        for (StoredConfigEntity entity : repository.findAllById(sanitizedNames)) {
+            CachedConfig cached = CachedConfig.of(mapper.toModel(entity));
+            merge(cached);
+            reloaded.add(cached);
+            missing.remove(entity.getSystemName());
+        }
+        missing.forEach(entries::remove);
+        return reloaded;
+    }
+
+    public Optional<CachedConfig> get(String sanitizedName) {
+        return Optional.ofNullable(entries.get(sanitizedName));
+    }
+
+    /**
+     * Кладет конфиг в кэш. Внутри транзакции запись откладывается до коммита,
+     * чтобы кэш не увидел данные откатившейся транзакции.
+     */
+    public void put(StoredConfig stored) {
+        if (stored == null || stored.getSystemName() == null) {
+            return;
+        }
+        CachedConfig cached = CachedConfig.of(stored);
+        TransactionUtils.afterCommit(() -> merge(cached));
+    }
+
+    public void evict(String sanitizedName) {
+        if (sanitizedName == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> entries.remove(sanitizedName));
+    }
+
+    private void merge(CachedConfig cached) {
+        // Версия только растет, поэтому более старый снимок не должен затирать свежий
+        entries.merge(cached.getSystemName(), cached,
+            (existing, fresh) -> fresh.getVersion() >= existing.getVersion() ? fresh : existing);
+    }
+
+    /**
+     * Неизменяемый снимок конфига в кэше
+     */
+    public static final class CachedConfig {
+        private final String systemName;
+        private final int version;
+        private final JsonNode startConfig;
+        private final JsonNode currentConfig;
+        private final TypedConfig startTyped;
+        private final TypedConfig currentTyped;
+        private final long startConfigDigest;
+        private final long currentConfigDigest;
+        private final Instant updatedAt;
+
+        private CachedConfig(String systemName, int version, JsonNode startConfig, JsonNode currentConfig,
+                             TypedConfig startTyped, TypedConfig currentTyped,
+                             long startConfigDigest, long currentConfigDigest, Instant updatedAt) {
+            this.systemName = systemName;
+            this.version = version;
+            this.startConfig = startConfig;
+            this.currentConfig = currentConfig;
+            this.startTyped = startTyped;
+            this.currentTyped = currentTyped;
+            this.startConfigDigest = startConfigDigest;
+            this.currentConfigDigest = currentConfigDigest;
+            this.updatedAt = updatedAt;
+        }
+
+        static CachedConfig of(StoredConfig stored) {
+            return new CachedConfig(
+                stored.getSystemName(),
+                stored.getVersion(),
+                stored.getStartConfig(),
+                stored.getCurrentConfig(),
+                stored.getStartTyped(),
+                stored.getCurrentTyped(),
+                stored.getStartConfigDigest(),
+                stored.getCurrentConfigDigest(),
+                stored.getUpdatedAt()
+            );
+        }
+
+        public String getSystemName() { return systemName; }
+        public int getVersion() { return version; }
+        public JsonNode getStartConfig() { return startConfig; }
+        public JsonNode getCurrentConfig() { return currentConfig; }
+        public TypedConfig getStartTyped() { return startTyped; }
+        public TypedConfig getCurrentTyped() { return currentTyped; }
+        public long getStartConfigDigest() { return startConfigDigest; }
+        public long getCurrentConfigDigest() { return currentConfigDigest; }
+        public Instant getUpdatedAt() { return updatedAt; }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mockcontroller.service;
+
+/**
+ * Событие изменения конфига заглушки (новая версия сохранена в базе)
+ */
+public class ConfigChangedEvent {
+
+    private final String systemName;
+    private final int version;
+
+    public ConfigChangedEvent(String systemName, int version) {
+        this.systemName = systemName;
+        this.version = version;
+    }
+
+    public String getSystemName() {
+        return systemName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
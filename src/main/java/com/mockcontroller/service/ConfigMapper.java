@@ -4,16 +4,33 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mockcontroller.model.StoredConfig;
+import com.mockcontroller.model.TypedConfig;
 import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.util.JsonDigest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class ConfigMapper {
 
     private final ObjectMapper objectMapper;
+    // Время разбора и сериализации JSON конфигов (mockcontroller.config.json{operation=parse|serialize})
+    private final Timer parseTimer;
+    private final Timer serializeTimer;
 
-    public ConfigMapper(ObjectMapper objectMapper) {
+    public ConfigMapper(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
+        this.parseTimer = Timer.builder("mockcontroller.config.json")
+            .description("JSON parse/serialize time of stored configs")
+            .tag("operation", "parse")
+            .register(meterRegistry);
+        this.serializeTimer = Timer.builder("mockcontroller.config.json")
+            .description("JSON parse/serialize time of stored configs")
+            .tag("operation", "serialize")
+            .register(meterRegistry);
     }
 
     public StoredConfigEntity toEntity(StoredConfig stored) {
@@ -24,6 +41,8 @@ public class ConfigMapper {
         entity.setSystemName(stored.getSystemName());
         entity.setStartConfigJson(jsonToString(stored.getStartConfig()));
         entity.setCurrentConfigJson(jsonToString(stored.getCurrentConfig()));
+        entity.setStartConfigDigest(stored.getStartConfigDigest());
+        entity.setCurrentConfigDigest(stored.getCurrentConfigDigest());
         entity.setUpdatedAt(stored.getUpdatedAt());
         entity.setVersion(stored.getVersion());
         return entity;
@@ -35,8 +54,20 @@ public class ConfigMapper {
         }
         StoredConfig stored = new StoredConfig();
         stored.setSystemName(entity.getSystemName());
-        stored.setStartConfig(stringToJson(entity.getStartConfigJson()));
-        stored.setCurrentConfig(stringToJson(entity.getCurrentConfigJson()));
+        JsonNode startConfig = stringToJson(entity.getStartConfigJson());
+        JsonNode currentConfig = stringToJson(entity.getCurrentConfigJson());
+        stored.setStartConfig(startConfig);
+        stored.setCurrentConfig(currentConfig);
+        stored.setStartTyped(TypedConfig.lenient(startConfig));
+        // Текущий конфиг до первого изменения совпадает со стартовым - строим модель один раз
+        stored.setCurrentTyped(entity.getCurrentConfigJson() != null
+                && entity.getCurrentConfigJson().equals(entity.getStartConfigJson())
+                ? stored.getStartTyped() : TypedConfig.lenient(currentConfig));
+        // Для строк, сохраненных до появления digest-колонок, вычисляем digest на лету
+        stored.setStartConfigDigest(entity.getStartConfigDigest() != null
+                ? entity.getStartConfigDigest() : JsonDigest.of(startConfig));
+        stored.setCurrentConfigDigest(entity.getCurrentConfigDigest() != null
+                ? entity.getCurrentConfigDigest() : JsonDigest.of(currentConfig));
         stored.setUpdatedAt(entity.getUpdatedAt());
         stored.setVersion(entity.getVersion());
         return stored;
@@ -46,10 +77,13 @@ public class ConfigMapper {
         if (jsonNode == null) {
             return "{}";
         }
+        long start = System.nanoTime();
         try {
             return objectMapper.writeValueAsString(jsonNode);
         } catch (JsonProcessingException e) {
             return jsonNode.toString();
+        } finally {
+            serializeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -61,10 +95,13 @@ public class ConfigMapper {
                 return objectMapper.createObjectNode();
             }
         }
+        long start = System.nanoTime();
         try {
             return objectMapper.readTree(jsonString);
         } catch (JsonProcessingException e) {
             return objectMapper.createObjectNode();
+        } finally {
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
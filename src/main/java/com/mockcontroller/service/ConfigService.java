@@ -8,23 +8,43 @@ import com.mockcontroller.dto.ConfigParamDto;
 import com.mockcontroller.dto.ConfigViewDto;
 import com.mockcontroller.model.CheckUpdateRequest;
 import com.mockcontroller.model.CheckUpdateResponse;
+import com.mockcontroller.model.CheckVersionRequest;
 import com.mockcontroller.model.ConfigRequest;
 import com.mockcontroller.model.ConfigResponse;
 import com.mockcontroller.model.ConfigSyncResponse;
 import com.mockcontroller.model.ConfigSyncResponse.SyncStatus;
 import com.mockcontroller.model.StoredConfig;
+import com.mockcontroller.model.StoredConfigSummary;
+import com.mockcontroller.model.TypedConfig;
 import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigBatchRepository;
+import com.mockcontroller.repository.StoredConfigBatchRepository.ConfigUpdateRow;
+import com.mockcontroller.repository.StoredConfigBatchRepository.UpdatedConfigRow;
 import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.util.JsonDigest;
+import com.mockcontroller.util.SingleFlight;
 import com.mockcontroller.util.SystemNameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,24 +56,58 @@ public class ConfigService {
     private final StoredConfigRepository repository;
     private final ConfigMapper mapper;
     private final GroupService groupService;
+    private final ConfigCache configCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConfigVersionLog versionLog;
+    private final StoredConfigBatchRepository batchRepository;
+    private final ClusterCacheSync clusterSync;
+    // Транзакция регистрации и записи вне @Transactional-методов: коммит происходит до того,
+    // как результат получат вызовы, ожидающие в SingleFlight
+    private final TransactionTemplate transactionTemplate;
+    // Одновременные загрузки и первые регистрации одной системы (старт многих подов) выполняются один раз
+    private final SingleFlight<String, Optional<ConfigCache.CachedConfig>> systemLoads = new SingleFlight<>();
+    // Одновременное автосоздание одной группы разными заглушками
+    private final SingleFlight<String, com.mockcontroller.model.Group> groupCreations = new SingleFlight<>();
+
+    @Value("${app.config.write-attempts:3}")
+    private int writeAttempts;
 
     public ConfigService(ObjectMapper objectMapper, StoredConfigRepository repository, 
-                        ConfigMapper mapper, GroupService groupService) {
+                        ConfigMapper mapper, GroupService groupService, ConfigCache configCache,
+                        ApplicationEventPublisher eventPublisher, ConfigVersionLog versionLog,
+                        StoredConfigBatchRepository batchRepository, ClusterCacheSync clusterSync,
+                        PlatformTransactionManager transactionManager) {
         this.objectMapper = objectMapper;
         this.repository = repository;
         this.mapper = mapper;
         this.groupService = groupService;
+        this.configCache = configCache;
+        this.eventPublisher = eventPublisher;
+        this.versionLog = versionLog;
+        this.batchRepository = batchRepository;
+        this.clusterSync = clusterSync;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public Collection<StoredConfig> findAll() {
-        return repository.findAll().stream()
-                .map(mapper::toModel)
-                .filter(config -> config.getSystemName() != null)
-                .sorted((a, b) -> {
-                    String nameA = a.getSystemName();
-                    String nameB = b.getSystemName();
-                    return nameA.compareToIgnoreCase(nameB);
-                })
+    /**
+     * Список конфигов для страниц без разбора JSON, отсортирован по имени без учета регистра
+     */
+    @Transactional(readOnly = true)
+    public List<StoredConfigSummary> findAllSummaries() {
+        return repository.findAllProjectedBy().stream()
+                .filter(summary -> summary.getSystemName() != null)
+                .sorted((a, b) -> a.getSystemName().compareToIgnoreCase(b.getSystemName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Имена всех зарегистрированных систем, отсортированы без учета регистра
+     */
+    @Transactional(readOnly = true)
+    public List<String> findAllSystemNames() {
+        return repository.findAllSystemNames().stream()
+                .filter(name -> name != null && !name.isEmpty())
+                .sorted(String::compareToIgnoreCase)
                 .collect(Collectors.toList());
     }
 
@@ -64,63 +118,131 @@ public class ConfigService {
 
     @Transactional
     public void updateCurrentConfig(String systemName, JsonNode newConfig) {
+        updateCurrentConfig(systemName, newConfig, null);
+    }
+
+    /**
+     * @param expectedVersion версия, на основе которой сделано изменение (If-Match); null - писать поверх последней
+     * @throws OptimisticLockingFailureException если версия в сервисе отличается от expectedVersion
+     */
+    @Transactional
+    public void updateCurrentConfig(String systemName, JsonNode newConfig, Integer expectedVersion) {
         // Валидируем конфиг перед обновлением
         validateConfig(newConfig);
+        long newDigest = JsonDigest.of(newConfig);
         
-        String sanitizedName = SystemNameUtils.sanitize(systemName);
-        StoredConfigEntity entity = repository.findBySystemName(sanitizedName)
-                .orElseThrow(() -> new IllegalArgumentException("Config not found: " + systemName));
-        
-        int oldVersion = entity.getVersion();
-        int newVersion = oldVersion + 1;
-        entity.setVersion(newVersion);
-        entity.setCurrentConfigJson(jsonToString(newConfig));
-        entity.setUpdatedAt(Instant.now());
-        repository.save(entity);
+        StoredConfigEntity written = writeWithRetry(systemName, expectedVersion, current ->
+                compareAndSave(current, findCurrentConfig(current), newConfig,
+                        next -> setCurrentConfig(next, newConfig, newDigest)));
         
-        logger.debug("Updated config for {}: v{} -> v{}", systemName, oldVersion, newVersion);
+        logger.debug("Updated config for {}: v{} -> v{}", systemName, written.getVersion() - 1, written.getVersion());
+    }
+
+    /**
+     * Групповая отправка конфигов: текущие конфиги всех систем заменяются и версии увеличиваются
+     * одним запросом в одной транзакции, поэтому поды группы видят новые версии одновременно.
+     * Подписчики получают одно событие GroupConfigChangedEvent после коммита.
+     *
+     * @param groupId группа, для которой выполняется отправка
+     * @param configs systemName -> новый текущий конфиг
+     * @throws IllegalArgumentException если конфиг не проходит валидацию или системы нет в базе
+     */
+    @Transactional
+    public GroupPushResult pushGroupConfigs(String groupId, Map<String, JsonNode> configs) {
+        if (configs == null || configs.isEmpty()) {
+            throw new IllegalArgumentException("Не задано ни одного конфига");
+        }
+        Map<String, JsonNode> configsBySystem = new LinkedHashMap<>();
+        Map<String, ConfigUpdateRow> rowsBySystem = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> entry : configs.entrySet()) {
+            JsonNode config = entry.getValue();
+            if (config == null || !config.isObject()) {
+                throw new IllegalArgumentException("Конфиг системы '" + entry.getKey() + "' должен быть JSON-объектом");
+            }
+            validateConfig(config);
+            String sanitizedName = SystemNameUtils.sanitize(entry.getKey());
+            if (configsBySystem.put(sanitizedName, config) != null) {
+                throw new IllegalArgumentException("Система '" + sanitizedName + "' указана несколько раз");
+            }
+            rowsBySystem.put(sanitizedName, new ConfigUpdateRow(sanitizedName, jsonToString(config), JsonDigest.of(config)));
+        }
+
+        Instant now = Instant.now();
+        List<UpdatedConfigRow> updated = batchRepository.updateCurrentConfigs(new ArrayList<>(rowsBySystem.values()), now);
+        if (updated.size() != rowsBySystem.size()) {
+            Set<String> found = updated.stream().map(UpdatedConfigRow::getSystemName).collect(Collectors.toSet());
+            String missing = rowsBySystem.keySet().stream()
+                    .filter(name -> !found.contains(name))
+                    .collect(Collectors.joining(", "));
+            // Исключение откатывает транзакцию - не обновится ни одна система
+            throw new IllegalArgumentException("Config not found: " + missing);
+        }
+
+        Map<String, Integer> versions = new LinkedHashMap<>();
+        for (UpdatedConfigRow row : updated) {
+            ConfigUpdateRow incoming = rowsBySystem.get(row.getSystemName());
+            StoredConfigEntity entity = new StoredConfigEntity(row.getSystemName(), row.getStartConfigJson(),
+                    incoming.getConfigJson(), now);
+            entity.setStartConfigDigest(row.getStartConfigDigest());
+            entity.setCurrentConfigDigest(incoming.getDigest());
+            entity.setVersion(row.getVersion());
+            versionLog.append(row.getSystemName(), row.getVersion(), parseOrNull(row.getPreviousConfigJson()),
+                    configsBySystem.get(row.getSystemName()));
+            configCache.put(mapper.toModel(entity));
+            versions.put(row.getSystemName(), row.getVersion());
+        }
+        clusterSync.notifyConfigsChanged(versions.keySet());
+        eventPublisher.publishEvent(new GroupConfigChangedEvent(groupId, versions));
+        logger.info("Pushed configs to {} systems of group {}", versions.size(), groupId);
+
+        Map<String, String> versionLabels = new LinkedHashMap<>();
+        versions.forEach((systemName, version) -> versionLabels.put(systemName, "v" + version));
+        return new GroupPushResult(groupId, versionLabels, now.toString());
     }
 
     @Transactional
     public boolean revertToStart(String systemName) {
-        String sanitizedName = SystemNameUtils.sanitize(systemName);
-        StoredConfigEntity entity = repository.findBySystemName(sanitizedName)
-                .orElseThrow(() -> new IllegalArgumentException("Config not found: " + systemName));
-        
-        StoredConfig stored = mapper.toModel(entity);
-        
-        // Проверяем, есть ли изменения
-        if (jsonEquals(stored.getCurrentConfig(), stored.getStartConfig())) {
+        return revertToStart(systemName, null);
+    }
+
+    /**
+     * @param expectedVersion версия, которую видел пользователь; null - откатывать последнюю
+     * @return false, если текущий конфиг уже совпадает со стартовым
+     * @throws OptimisticLockingFailureException если версия в сервисе отличается от expectedVersion
+     */
+    @Transactional
+    public boolean revertToStart(String systemName, Integer expectedVersion) {
+        Optional<StoredConfigEntity> written = writeWithRetry(systemName, expectedVersion, current -> {
+            StoredConfig stored = mapper.toModel(current);
+            
+            // Проверяем, есть ли изменения
+            if (JsonDigest.equals(stored.getCurrentConfig(), stored.getCurrentConfigDigest(),
+                    stored.getStartConfig(), stored.getStartConfigDigest())) {
+                return Optional.of(Optional.empty());
+            }
+            
+            // Есть изменения - возвращаем к стартовому и увеличиваем версию
+            return compareAndSave(current, stored.getCurrentConfig(), stored.getStartConfig(), next -> {
+                next.setCurrentConfigJson(next.getStartConfigJson());
+                next.setCurrentConfigDigest(stored.getStartConfigDigest());
+            }).map(Optional::of);
+        });
+        
+        if (written.isEmpty()) {
             logger.debug("No changes to revert for {}", systemName);
             return false;
         }
-        
-        // Есть изменения - возвращаем к стартовому и увеличиваем версию
-        int oldVersion = entity.getVersion();
-        try {
-            JsonNode startConfigCopy = objectMapper.readTree(
-                objectMapper.writeValueAsString(stored.getStartConfig())
-            );
-            int newVersion = oldVersion + 1;
-            entity.setVersion(newVersion);
-            entity.setCurrentConfigJson(jsonToString(startConfigCopy));
-            entity.setUpdatedAt(Instant.now());
-            repository.save(entity);
-            logger.info("Reverted config for {} to start: v{} -> v{}", systemName, oldVersion, newVersion);
-            return true;
-        } catch (Exception e) {
-            logger.warn("Failed to parse start config for {}, using direct copy: {}", systemName, e.getMessage());
-            int newVersion = oldVersion + 1;
-            entity.setVersion(newVersion);
-            entity.setCurrentConfigJson(entity.getStartConfigJson());
-            entity.setUpdatedAt(Instant.now());
-            repository.save(entity);
-            logger.info("Reverted config for {} to start (fallback): v{} -> v{}", systemName, oldVersion, newVersion);
-            return true;
-        }
+        logger.info("Reverted config for {} to start: v{} -> v{}", systemName,
+                written.get().getVersion() - 1, written.get().getVersion());
+        return true;
     }
 
-    @Transactional
+    /**
+     * Не помечен @Transactional: в частом случае "изменений нет" ответ берется из ConfigCache
+     * и соединение с базой не открывается. Первая регистрация выполняется в своей транзакции
+     * (loadOrRegister), перезапись стартового конфига - compare-and-set по версии (writeWithRetry)
+     * в одной транзакции с журналом версий.
+     */
     public CheckUpdateResponse checkUpdate(CheckUpdateRequest request) {
         String sanitizedName = SystemNameUtils.sanitize(request.getSystemName());
         String incomingVersion = request.getVersion();
@@ -131,65 +253,109 @@ public class ConfigService {
             validateConfig(incomingConfig);
         }
         
-        Optional<StoredConfigEntity> currentOpt = repository.findBySystemName(sanitizedName);
-
         int incomingVersionInt = parseVersion(incomingVersion);
+        // Digest входящего конфига нужен только для версии 1 (сравнение со стартовым)
+        long incomingDigest = incomingVersionInt == 1 ? JsonDigest.of(incomingConfig) : 0L;
 
-        if (currentOpt.isEmpty()) {
-            // Конфига нет - сохраняем как новый стартовый конфиг
+        // Быстрый путь: отвечаем из кэша без обращения к базе
+        Optional<ConfigCache.CachedConfig> cachedOpt = configCache.get(sanitizedName);
+        if (cachedOpt.isEmpty()) {
+            // Системы нет в кэше - загружаем из базы или сохраняем как новый стартовый конфиг
             // Если версия выше 1, используем её, иначе ставим 1
             int versionToUse = incomingVersionInt >= 1 ? incomingVersionInt : 1;
-            StoredConfigEntity entity = new StoredConfigEntity();
-            entity.setSystemName(sanitizedName);
-            entity.setStartConfigJson(jsonToString(incomingConfig));
-            entity.setCurrentConfigJson(jsonToString(incomingConfig));
-            entity.setUpdatedAt(Instant.now());
-            entity.setVersion(versionToUse);
-            repository.save(entity);
-            
-            // Автоматическое создание/обновление группы для моков с шаблоном system-integration-mock
-            autoCreateOrUpdateGroup(request.getSystemName());
-            
-            return new CheckUpdateResponse(false, "v" + versionToUse);
+            long digest = incomingVersionInt == 1 ? incomingDigest : JsonDigest.of(incomingConfig);
+            AtomicBoolean registered = new AtomicBoolean();
+            cachedOpt = loadOrRegister(sanitizedName, request.getSystemName(), incomingConfig, digest, versionToUse, registered);
+            if (registered.get()) {
+                return new CheckUpdateResponse(false, "v" + versionToUse, JsonDigest.toHex(digest));
+            }
+        }
+        if (cachedOpt.isPresent()) {
+            ConfigCache.CachedConfig cached = cachedOpt.get();
+            int cachedVersion = cached.getVersion();
+            if (incomingVersionInt != 1) {
+                return new CheckUpdateResponse(incomingVersionInt < cachedVersion, "v" + cachedVersion,
+                        JsonDigest.toHex(cached.getStartConfigDigest()));
+            }
+            if (JsonDigest.equals(cached.getStartConfig(), cached.getStartConfigDigest(),
+                    incomingConfig, incomingDigest)) {
+                return new CheckUpdateResponse(false, "v" + cachedVersion, JsonDigest.toHex(cached.getStartConfigDigest()));
+            }
         }
 
-        StoredConfigEntity current = currentOpt.get();
-        int currentVersion = current.getVersion();
-
-        // Если версия 1, но конфиг отличается от стартового - перезаписываем стартовый
-        if (incomingVersionInt == 1) {
+        // Конфиг удален во время запроса - writeWithRetry бросит IllegalArgumentException.
+        // Новая версия и ее запись в журнале версий коммитятся вместе, иначе цепочка разниц оборвется
+        return transactionTemplate.execute(status -> writeWithRetry(request.getSystemName(), null, current -> {
+            int currentVersion = current.getVersion();
             StoredConfig stored = mapper.toModel(current);
-            if (!jsonEquals(stored.getStartConfig(), incomingConfig)) {
-                int newVersion = currentVersion + 1;
-                current.setVersion(newVersion);
-                current.setStartConfigJson(jsonToString(incomingConfig));
-                current.setCurrentConfigJson(jsonToString(incomingConfig));
-                current.setUpdatedAt(Instant.now());
-                repository.save(current);
-                return new CheckUpdateResponse(false, "v" + newVersion);
+
+            // Если версия 1, но конфиг отличается от стартового - перезаписываем стартовый
+            if (incomingVersionInt == 1) {
+                if (!JsonDigest.equals(stored.getStartConfig(), stored.getStartConfigDigest(),
+                        incomingConfig, incomingDigest)) {
+                    return compareAndSave(current, stored.getCurrentConfig(), incomingConfig, next -> {
+                        setStartConfig(next, incomingConfig, incomingDigest);
+                        setCurrentConfig(next, incomingConfig, incomingDigest);
+                    }).map(next -> new CheckUpdateResponse(false, "v" + next.getVersion(), JsonDigest.toHex(incomingDigest)));
+                }
+                configCache.put(stored);
+                return Optional.of(new CheckUpdateResponse(false, "v" + currentVersion,
+                        JsonDigest.toHex(stored.getStartConfigDigest())));
             }
-            return new CheckUpdateResponse(false, "v" + currentVersion);
+
+            // Конфиг был в базе, но отсутствовал в кэше - дозаполняем кэш
+            configCache.put(stored);
+
+            // Если версия заглушки меньше нашей - нужна обновление
+            return Optional.of(new CheckUpdateResponse(incomingVersionInt < currentVersion, "v" + currentVersion,
+                    JsonDigest.toHex(stored.getStartConfigDigest())));
+        }));
+    }
+
+    /**
+     * Облегченная проверка обновлений: заглушка передает только версию и digest стартового конфига
+     * (полученный ранее в поле configDigest ответа checkUpdate). Ответ формируется из ConfigCache
+     * без парсинга и валидации конфига. Если сервер не знает заглушку или digest стартового конфига
+     * не совпадает - возвращается needConfig=true, и заглушка должна вызвать полный checkUpdate.
+     */
+    public CheckUpdateResponse checkVersion(CheckVersionRequest request) {
+        String sanitizedName = SystemNameUtils.sanitize(request.getSystemName());
+        int incomingVersionInt = parseVersion(request.getVersion());
+
+        Optional<ConfigCache.CachedConfig> cachedOpt = configCache.get(sanitizedName);
+        if (cachedOpt.isEmpty()) {
+            return CheckUpdateResponse.configRequired(null, null);
         }
 
-        // Если версия заглушки меньше нашей - нужна обновление
-        if (incomingVersionInt < currentVersion) {
-            return new CheckUpdateResponse(true, "v" + currentVersion);
+        ConfigCache.CachedConfig cached = cachedOpt.get();
+        int cachedVersion = cached.getVersion();
+        String startDigest = JsonDigest.toHex(cached.getStartConfigDigest());
+
+        if (incomingVersionInt == 1) {
+            Long incomingDigest = JsonDigest.parseHex(request.getConfigDigest());
+            if (incomingDigest == null || incomingDigest != cached.getStartConfigDigest()) {
+                return CheckUpdateResponse.configRequired("v" + cachedVersion, startDigest);
+            }
+            return new CheckUpdateResponse(false, "v" + cachedVersion, startDigest);
         }
 
-        return new CheckUpdateResponse(false, "v" + currentVersion);
+        return new CheckUpdateResponse(incomingVersionInt < cachedVersion, "v" + cachedVersion, startDigest);
     }
 
-    @Transactional
+    /**
+     * Не помечен @Transactional: первая регистрация выполняется в своей транзакции через loadOrRegister,
+     * чтобы одновременные запросы подов новой системы дождались ее коммита, не держа соединений с базой.
+     */
     public ConfigSyncResponse handleIncoming(ConfigRequest request) {
         // Валидируем конфиг перед обработкой
         if (request.getConfig() != null) {
             validateConfig(request.getConfig());
         }
         String sanitizedName = SystemNameUtils.sanitize(request.getSystemName());
-        Optional<StoredConfigEntity> currentOpt = repository.findBySystemName(sanitizedName);
         JsonNode incoming = request.getConfig();
+        long incomingDigest = JsonDigest.of(incoming);
 
-        if (currentOpt.isEmpty()) {
+        if (configCache.get(sanitizedName).isEmpty()) {
             // Первая регистрация или регистрация после удаления
             // Если в запросе есть версия и она выше 1, используем её, иначе ставим 1
             String requestVersion = request.getVersion();
@@ -200,49 +366,43 @@ public class ConfigService {
                     versionToUse = parsedVersion;
                 }
             }
-            
-            StoredConfigEntity entity = new StoredConfigEntity();
-            entity.setSystemName(sanitizedName);
-            entity.setStartConfigJson(jsonToString(incoming));
-            entity.setCurrentConfigJson(jsonToString(incoming));
-            entity.setUpdatedAt(Instant.now());
-            entity.setVersion(versionToUse);
-            repository.save(entity);
-            
-            logger.info("New config registered for {}: v{}", request.getSystemName(), versionToUse);
-            
-            // Автоматическое создание/обновление группы для моков с шаблоном system-integration-mock
-            autoCreateOrUpdateGroup(request.getSystemName());
-            
-            return new ConfigSyncResponse(SyncStatus.START_REGISTERED,
-                    "Start config saved", "v" + versionToUse);
+            AtomicBoolean registered = new AtomicBoolean();
+            loadOrRegister(sanitizedName, request.getSystemName(), incoming, incomingDigest, versionToUse, registered);
+            if (registered.get()) {
+                return new ConfigSyncResponse(SyncStatus.START_REGISTERED,
+                        "Start config saved", "v" + versionToUse);
+            }
         }
 
-        StoredConfigEntity current = currentOpt.get();
+        return transactionTemplate.execute(status -> writeWithRetry(request.getSystemName(), null,
+                current -> syncExisting(request, current, incoming, incomingDigest)));
+    }
+
+    private Optional<ConfigSyncResponse> syncExisting(ConfigRequest request, StoredConfigEntity current,
+                                                      JsonNode incoming, long incomingDigest) {
         StoredConfig stored = mapper.toModel(current);
 
         // Сравниваем стартовый конфиг
-        if (!jsonEquals(stored.getStartConfig(), incoming)) {
-            int oldVersion = current.getVersion();
-            int newVersion = oldVersion + 1;
-            current.setVersion(newVersion);
-            current.setStartConfigJson(jsonToString(incoming));
-            current.setCurrentConfigJson(jsonToString(incoming));
-            current.setUpdatedAt(Instant.now());
-            repository.save(current);
-            logger.info("Start config updated for {}: v{} -> v{}", request.getSystemName(), oldVersion, newVersion);
-            return new ConfigSyncResponse(SyncStatus.UPDATED_START_CONFIG,
-                    "Start config updated", "v" + newVersion);
+        if (!JsonDigest.equals(stored.getStartConfig(), stored.getStartConfigDigest(), incoming, incomingDigest)) {
+            return compareAndSave(current, stored.getCurrentConfig(), incoming, next -> {
+                setStartConfig(next, incoming, incomingDigest);
+                setCurrentConfig(next, incoming, incomingDigest);
+            }).map(next -> {
+                logger.info("Start config updated for {}: v{} -> v{}", request.getSystemName(),
+                        current.getVersion(), next.getVersion());
+                return new ConfigSyncResponse(SyncStatus.UPDATED_START_CONFIG,
+                        "Start config updated", "v" + next.getVersion());
+            });
         }
 
         // Сравниваем текущий конфиг
-        if (!jsonEquals(stored.getCurrentConfig(), incoming)) {
-            return new ConfigSyncResponse(SyncStatus.UPDATE_AVAILABLE,
-                    "New config version available", "v" + current.getVersion());
+        if (!JsonDigest.equals(stored.getCurrentConfig(), stored.getCurrentConfigDigest(), incoming, incomingDigest)) {
+            return Optional.of(new ConfigSyncResponse(SyncStatus.UPDATE_AVAILABLE,
+                    "New config version available", "v" + current.getVersion()));
         }
 
-        return new ConfigSyncResponse(SyncStatus.NO_CHANGES,
-                "No changes", "v" + current.getVersion());
+        return Optional.of(new ConfigSyncResponse(SyncStatus.NO_CHANGES,
+                "No changes", "v" + current.getVersion()));
     }
 
     public ConfigResponse getConfig(String systemName, String version) {
@@ -275,7 +435,63 @@ public class ConfigService {
         );
     }
 
-    private int parseVersion(String versionStr) {
+    /**
+     * Конфиг для пода, у которого уже есть версия since: merge patch от since до текущей версии,
+     * пустой патч, если версия актуальна, или полный конфиг, если патч построить нельзя
+     * (since неизвестна, цепочка длиннее лимита или начата до появления журнала).
+     */
+    public ConfigResponse getConfigSince(String systemName, String since) {
+        String sanitizedName = SystemNameUtils.sanitize(systemName);
+        Optional<ConfigCache.CachedConfig> cachedOpt = getCached(sanitizedName);
+        if (cachedOpt.isEmpty()) {
+            return getConfig(systemName, null);
+        }
+        ConfigCache.CachedConfig cached = cachedOpt.get();
+        int sinceVersion = parseVersion(since);
+        int currentVersion = cached.getVersion();
+        String updatedAt = cached.getUpdatedAt() != null ? cached.getUpdatedAt().toString() : Instant.now().toString();
+
+        if (sinceVersion == currentVersion) {
+            return ConfigResponse.delta(cached.getSystemName(), "v" + currentVersion, "v" + sinceVersion,
+                    objectMapper.createObjectNode(), updatedAt);
+        }
+        Optional<JsonNode> delta = versionLog.findDelta(sanitizedName, sinceVersion, currentVersion);
+        if (delta.isPresent()) {
+            return ConfigResponse.delta(cached.getSystemName(), "v" + currentVersion, "v" + sinceVersion,
+                    delta.get(), updatedAt);
+        }
+        return new ConfigResponse(cached.getSystemName(), "v" + currentVersion, cached.getCurrentConfig(), updatedAt);
+    }
+
+    /**
+     * Слабый ETag ответа GET /api/configs/{systemName}: система, версия и digest отдаваемого конфига,
+     * для запроса с since - еще и базовая версия. Считается по ConfigCache без загрузки и разбора конфига.
+     * ETag слабый: тело одной версии отдается в JSON, Smile или CBOR и сжимается gzip, а Tomcat
+     * не сжимает ответы с сильным ETag.
+     *
+     * @return empty, если системы нет (ответ отдается без ETag)
+     */
+    public Optional<String> configETag(String systemName, String version, String since) {
+        String sanitizedName = SystemNameUtils.sanitize(systemName);
+        Optional<ConfigCache.CachedConfig> cachedOpt = getCached(sanitizedName);
+        if (cachedOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        ConfigCache.CachedConfig cached = cachedOpt.get();
+        int currentVersion = cached.getVersion();
+        if (since != null && !since.isEmpty()) {
+            return Optional.of("W/\"" + sanitizedName + "-v" + currentVersion + "-"
+                    + JsonDigest.toHex(cached.getCurrentConfigDigest()) + "-since" + parseVersion(since) + "\"");
+        }
+        // Выбор версии повторяет getConfig: v1 - стартовый конфиг, иначе текущий
+        boolean startRequested = version != null && !version.isEmpty()
+                && parseVersion(version) == 1 && currentVersion != 1;
+        int versionToReturn = startRequested ? 1 : currentVersion;
+        long digest = startRequested ? cached.getStartConfigDigest() : cached.getCurrentConfigDigest();
+        return Optional.of("W/\"" + sanitizedName + "-v" + versionToReturn + "-" + JsonDigest.toHex(digest) + "\"");
+    }
+
+    static int parseVersion(String versionStr) {
         if (versionStr == null || versionStr.isEmpty()) {
             return 1;
         }
@@ -294,13 +510,82 @@ public class ConfigService {
         }
     }
 
+    /**
+     * Конфиг системы, которой нет в кэше: загрузка из базы или, если системы нет и в базе, первая регистрация.
+     * Одновременные вызовы для одной системы (старт многих подов новой заглушки) объединяются:
+     * запись в базу и автосоздание группы выполняет один вызов, остальные получают его результат после коммита.
+     *
+     * @param registered выставляется в true только у вызова, который зарегистрировал систему
+     */
+    private Optional<ConfigCache.CachedConfig> loadOrRegister(String sanitizedName, String systemName, JsonNode config,
+                                                              long digest, int version, AtomicBoolean registered) {
+        // Второй проход нужен, если вызов присоединился к загрузке на чтение, которая не нашла систему в базе
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Optional<ConfigCache.CachedConfig> result = systemLoads.execute(sanitizedName,
+                    () -> register(sanitizedName, systemName, config, digest, version, registered));
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ConfigCache.CachedConfig> register(String sanitizedName, String systemName, JsonNode config,
+                                                        long digest, int version, AtomicBoolean registered) {
+        Boolean created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                Optional<StoredConfigEntity> existing = repository.findBySystemName(sanitizedName);
+                if (existing.isPresent()) {
+                    // Конфиг был в базе, но отсутствовал в кэше - дозаполняем кэш
+                    configCache.put(mapper.toModel(existing.get()));
+                    return false;
+                }
+                StoredConfigEntity entity = new StoredConfigEntity();
+                entity.setSystemName(sanitizedName);
+                setStartConfig(entity, config, digest);
+                setCurrentConfig(entity, config, digest);
+                entity.setUpdatedAt(Instant.now());
+                entity.setVersion(version);
+                saveAndCache(entity, null, config);
+                return true;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Систему в это же время зарегистрировала другая реплика контроллера
+            logger.debug("Config for {} was registered concurrently, loading it", systemName);
+            return loadFromDb(sanitizedName);
+        }
+        if (Boolean.TRUE.equals(created)) {
+            registered.set(true);
+            logger.info("New config registered for {}: v{}", systemName, version);
+            // Автоматическое создание/обновление группы для моков с шаблоном system-integration-mock
+            autoCreateOrUpdateGroup(systemName);
+        }
+        return configCache.get(sanitizedName);
+    }
+
+    /**
+     * Конфиг из кэша; при промахе - загрузка из базы, одна на все одновременные запросы системы
+     */
+    private Optional<ConfigCache.CachedConfig> getCached(String sanitizedName) {
+        Optional<ConfigCache.CachedConfig> cached = configCache.get(sanitizedName);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return systemLoads.execute(sanitizedName, () -> loadFromDb(sanitizedName));
+    }
+
+    private Optional<ConfigCache.CachedConfig> loadFromDb(String sanitizedName) {
+        repository.findBySystemName(sanitizedName).map(mapper::toModel).ifPresent(configCache::put);
+        return configCache.get(sanitizedName);
+    }
+
     /**
      * Автоматически создает или обновляет группу для моков, следующих шаблону system-integration-mock.
      * Если мок соответствует шаблону, извлекается название системы и:
      * - Если группы с таким названием нет - создается группа и добавляется мок
      * - Если группа существует, но мока в ней нет - мок добавляется в группу
      */
-    @Transactional
     private void autoCreateOrUpdateGroup(String systemName) {
         if (systemName == null || systemName.isEmpty()) {
             return;
@@ -317,76 +602,182 @@ public class ConfigService {
             return;
         }
         
-        // Ищем группу с таким названием (без учета регистра)
-        Optional<com.mockcontroller.model.Group> groupOpt = groupService.findByName(groupName);
-        
-        if (groupOpt.isEmpty()) {
-            // Группы нет - создаем новую группу с этим моком
-            groupService.createGroup(
-                groupName,
-                "Автоматически созданная группа для системы " + groupName,
-                java.util.Collections.singletonList(systemName)
-            );
-            logger.debug("Auto-created group '{}' for mock '{}'", groupName, systemName);
-        } else {
-            // Группа существует - проверяем, есть ли в ней этот мок
-            com.mockcontroller.model.Group group = groupOpt.get();
-            if (!group.getSystemNames().contains(systemName)) {
-                // Мока нет в группе - добавляем его
-                java.util.List<String> updatedSystems = new java.util.ArrayList<>(group.getSystemNames());
-                updatedSystems.add(systemName);
-                groupService.updateGroup(
-                    group.getId(),
-                    group.getName(),
-                    group.getDescription(),
-                    updatedSystems
+        // Ищем группу с таким названием (без учета регистра). Группу, которую одновременно
+        // регистрируют несколько заглушек одной системы, создает один вызов
+        com.mockcontroller.model.Group group = groupCreations.execute(groupName.toLowerCase(java.util.Locale.ROOT),
+            () -> groupService.findByName(groupName).orElseGet(() -> {
+                // Группы нет - создаем новую группу с этим моком
+                com.mockcontroller.model.Group created = groupService.createGroup(
+                    groupName,
+                    "Автоматически созданная группа для системы " + groupName,
+                    java.util.Collections.singletonList(systemName)
                 );
-                logger.debug("Auto-added mock '{}' to existing group '{}'", systemName, groupName);
-            }
+                logger.debug("Auto-created group '{}' for mock '{}'", groupName, systemName);
+                return created;
+            }));
+        
+        // Группа существует - если мока в ней нет, добавляем его одной строкой
+        if (groupService.addSystemToGroup(group.getId(), systemName)) {
+            logger.debug("Auto-added mock '{}' to existing group '{}'", systemName, groupName);
         }
     }
     
 
-    private String jsonToString(JsonNode jsonNode) {
-        if (jsonNode == null) {
-            return "{}";
+    /**
+     * @param previousConfig текущий конфиг предыдущей версии (null при первой регистрации) - для журнала версий
+     */
+    private void saveAndCache(StoredConfigEntity entity, JsonNode previousConfig, JsonNode currentConfig) {
+        repository.save(entity);
+        publishWritten(entity, previousConfig, currentConfig);
+    }
+
+    /**
+     * Запись новой версии конфига без блокировок: write читает строку, решает, что записать,
+     * и пишет через compareAndSave. Если строку между чтением и записью изменил другой запрос
+     * (UI, API, планировщик, заглушка), попытка повторяется на свежей строке - не более
+     * app.config.write-attempts раз. С expectedVersion (If-Match) повтора нет: изменение, сделанное
+     * поверх устаревшей версии, отклоняется.
+     *
+     * @param write результат попытки или empty, если версию уже сменил другой запрос
+     * @throws IllegalArgumentException если конфига нет
+     * @throws OptimisticLockingFailureException если версия не совпала с expectedVersion или попытки кончились
+     */
+    private <T> T writeWithRetry(String systemName, Integer expectedVersion,
+                                 Function<StoredConfigEntity, Optional<T>> write) {
+        String sanitizedName = SystemNameUtils.sanitize(systemName);
+        for (int attempt = 1; ; attempt++) {
+            StoredConfigEntity current = repository.findBySystemName(sanitizedName)
+                    .orElseThrow(() -> new IllegalArgumentException("Config not found: " + systemName));
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw versionConflict(systemName, expectedVersion);
+            }
+            Optional<T> result = write.apply(current);
+            if (result.isPresent()) {
+                return result.get();
+            }
+            if (expectedVersion != null) {
+                throw versionConflict(systemName, expectedVersion);
+            }
+            if (attempt >= writeAttempts) {
+                throw new OptimisticLockingFailureException("Конфиг " + systemName
+                        + " одновременно изменяется другими запросами, повторите попытку");
+            }
+            logger.debug("Concurrent write to {} at v{}, retrying", systemName, current.getVersion());
+        }
+    }
+
+    /**
+     * Записывает следующую версию конфига, если в базе все еще версия current
+     *
+     * @param change изменение стартового и/или текущего конфига новой версии
+     * @return записанная версия или empty, если версию уже сменил другой запрос
+     */
+    private Optional<StoredConfigEntity> compareAndSave(StoredConfigEntity current, JsonNode previousConfig,
+                                                        JsonNode newConfig, Consumer<StoredConfigEntity> change) {
+        // Изменения вносятся в копию: прочитанная сущность не должна попасть в базу обычным UPDATE без проверки версии
+        StoredConfigEntity next = new StoredConfigEntity(current.getSystemName(), current.getStartConfigJson(),
+                current.getCurrentConfigJson(), Instant.now());
+        next.setStartConfigDigest(current.getStartConfigDigest());
+        next.setCurrentConfigDigest(current.getCurrentConfigDigest());
+        next.setVersion(current.getVersion() + 1);
+        change.accept(next);
+        int updated = repository.compareAndSetVersion(next.getSystemName(), current.getVersion(),
+                next.getStartConfigJson(), next.getStartConfigDigest(),
+                next.getCurrentConfigJson(), next.getCurrentConfigDigest(), next.getUpdatedAt());
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        publishWritten(next, previousConfig, newConfig);
+        return Optional.of(next);
+    }
+
+    private static OptimisticLockingFailureException versionConflict(String systemName, int expectedVersion) {
+        return new OptimisticLockingFailureException("Конфиг " + systemName + " уже изменен: версия v"
+                + expectedVersion + " устарела, обновите конфиг и повторите изменение");
+    }
+
+    /**
+     * Разбор версии из If-Match или скрытого поля формы: v3, 3, "v3"; пусто или * - без проверки версии
+     *
+     * @throws IllegalArgumentException если значение не является версией
+     */
+    public static Integer parseExpectedVersion(String value) {
+        if (value == null || value.isBlank() || "*".equals(value.trim())) {
+            return null;
+        }
+        String cleaned = value.trim();
+        if (cleaned.startsWith("W/")) {
+            cleaned = cleaned.substring(2);
+        }
+        if (cleaned.length() >= 2 && cleaned.startsWith("\"") && cleaned.endsWith("\"")) {
+            cleaned = cleaned.substring(1, cleaned.length() - 1);
+        }
+        if (cleaned.startsWith("v")) {
+            cleaned = cleaned.substring(1);
         }
         try {
-            return objectMapper.writeValueAsString(jsonNode);
-        } catch (JsonProcessingException e) {
-            return jsonNode.toString();
+            return Integer.parseInt(cleaned);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректная версия конфига: " + value);
         }
     }
 
     /**
-     * Нормализует JsonNode для корректного сравнения
+     * Журнал версий, кэш, уведомление реплик и подписчиков после записи новой версии
+     */
+    private void publishWritten(StoredConfigEntity entity, JsonNode previousConfig, JsonNode currentConfig) {
+        versionLog.append(entity.getSystemName(), entity.getVersion(), previousConfig, currentConfig);
+        configCache.put(mapper.toModel(entity));
+        // Другие реплики перечитают конфиг после коммита
+        clusterSync.notifyConfigsChanged(List.of(entity.getSystemName()));
+        // Подписчики (SSE) получат событие после коммита транзакции
+        eventPublisher.publishEvent(new ConfigChangedEvent(entity.getSystemName(), entity.getVersion()));
+    }
+
+    /**
+     * Текущий конфиг сущности: из кэша, если там та же версия, иначе разбором JSON
      */
-    private JsonNode normalizeJsonNode(JsonNode node) {
-        if (node == null) {
-            return objectMapper.createObjectNode();
+    private JsonNode findCurrentConfig(StoredConfigEntity entity) {
+        Optional<ConfigCache.CachedConfig> cached = configCache.get(entity.getSystemName());
+        if (cached.isPresent() && cached.get().getVersion() == entity.getVersion()) {
+            return cached.get().getCurrentConfig();
         }
         try {
-            return objectMapper.readTree(objectMapper.writeValueAsString(node));
-        } catch (Exception e) {
-            return node;
+            return objectMapper.readTree(entity.getCurrentConfigJson());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
         }
     }
 
-    private boolean jsonEquals(JsonNode left, JsonNode right) {
-        if (left == null && right == null) {
-            return true;
+    private void setStartConfig(StoredConfigEntity entity, JsonNode config, long digest) {
+        entity.setStartConfigJson(jsonToString(config));
+        entity.setStartConfigDigest(digest);
+    }
+
+    private void setCurrentConfig(StoredConfigEntity entity, JsonNode config, long digest) {
+        entity.setCurrentConfigJson(jsonToString(config));
+        entity.setCurrentConfigDigest(digest);
+    }
+
+    private JsonNode parseOrNull(String json) {
+        if (json == null) {
+            return null;
         }
-        if (left == null || right == null) {
-            return false;
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private String jsonToString(JsonNode jsonNode) {
+        if (jsonNode == null) {
+            return "{}";
         }
         try {
-            JsonNode normalizedLeft = normalizeJsonNode(left);
-            JsonNode normalizedRight = normalizeJsonNode(right);
-            String leftStr = objectMapper.writeValueAsString(normalizedLeft);
-            String rightStr = objectMapper.writeValueAsString(normalizedRight);
-            return leftStr.equals(rightStr);
-        } catch (Exception e) {
-            return left.equals(right);
+            return objectMapper.writeValueAsString(jsonNode);
+        } catch (JsonProcessingException e) {
+            return jsonNode.toString();
         }
     }
 
@@ -402,138 +793,84 @@ public class ConfigService {
         return objectMapper.readTree(json);
     }
 
+    /**
+     * Модель страницы конфига строится из JSON-дерева, а не из TypedConfig: параметры показываются
+     * в порядке сохраненного конфига, а значения, не прошедшие бы валидацию, - как есть, чтобы их можно было исправить
+     */
     public ConfigViewDto toConfigViewDto(StoredConfig stored) {
         ConfigViewDto dto = new ConfigViewDto();
         dto.setSystemName(stored.getSystemName());
-        
+        dto.setConfigVersion("v" + stored.getVersion());
+
         JsonNode current = stored.getCurrentConfig();
         JsonNode start = stored.getStartConfig();
-        
-        dto.setConfigVersion("v" + stored.getVersion());
-        
-        JsonNode currentDelays = current.get("delays");
-        JsonNode startDelays = start != null ? start.get("delays") : null;
-        if (currentDelays != null && currentDelays.isObject()) {
-            currentDelays.fields().forEachRemaining(entry -> {
-                ConfigParamDto param = new ConfigParamDto();
-                param.setKey(entry.getKey());
-                param.setValue(entry.getValue().asText());
-                param.setType("int");
-                
-                if (startDelays != null && startDelays.has(entry.getKey())) {
-                    param.setStartValue(startDelays.get(entry.getKey()).asText());
-                } else {
-                    param.setStartValue(entry.getValue().asText());
-                }
-                
-                dto.getDelays().add(param);
-            });
-        }
-        
-        JsonNode currentStringParams = current.get("stringParams");
-        JsonNode startStringParams = start != null ? start.get("stringParams") : null;
-        if (currentStringParams != null && currentStringParams.isObject()) {
-            currentStringParams.fields().forEachRemaining(entry -> {
-                ConfigParamDto param = new ConfigParamDto();
-                param.setKey(entry.getKey());
-                param.setValue(entry.getValue().asText());
-                param.setType("string");
-                
-                if (startStringParams != null && startStringParams.has(entry.getKey())) {
-                    param.setStartValue(startStringParams.get(entry.getKey()).asText());
-                } else {
-                    param.setStartValue(entry.getValue().asText());
-                }
-                
-                dto.getStringParams().add(param);
-            });
-        }
-        
-        JsonNode currentIntParams = current.get("intParams");
-        JsonNode startIntParams = start != null ? start.get("intParams") : null;
-        if (currentIntParams != null && currentIntParams.isObject()) {
-            currentIntParams.fields().forEachRemaining(entry -> {
-                ConfigParamDto param = new ConfigParamDto();
-                param.setKey(entry.getKey());
-                param.setValue(entry.getValue().asText());
-                param.setType("int");
-                
-                if (startIntParams != null && startIntParams.has(entry.getKey())) {
-                    param.setStartValue(startIntParams.get(entry.getKey()).asText());
-                } else {
-                    param.setStartValue(entry.getValue().asText());
-                }
-                
-                dto.getIntParams().add(param);
-            });
+        if (current == null) {
+            return dto;
         }
-        
-        JsonNode currentBooleanVariables = current.get("booleanVariables");
-        JsonNode startBooleanVariables = start != null ? start.get("booleanVariables") : null;
-        if (currentBooleanVariables != null && currentBooleanVariables.isObject()) {
-            currentBooleanVariables.fields().forEachRemaining(entry -> {
-                ConfigParamDto param = new ConfigParamDto();
-                param.setKey(entry.getKey());
-                param.setValue(entry.getValue().asText());
-                param.setType("boolean");
-                
-                if (startBooleanVariables != null && startBooleanVariables.has(entry.getKey())) {
-                    param.setStartValue(startBooleanVariables.get(entry.getKey()).asText());
-                } else {
-                    param.setStartValue(entry.getValue().asText());
-                }
-                
-                dto.getBooleanVariables().add(param);
-            });
-        }
-        
+
+        addViewParams(dto.getDelays(), current, start, "delays", "int");
+        addViewParams(dto.getStringParams(), current, start, "stringParams", "string");
+        addViewParams(dto.getIntParams(), current, start, "intParams", "int");
+        addViewParams(dto.getBooleanVariables(), current, start, "booleanVariables", "boolean");
+
         JsonNode currentLogging = current.get("loggingLv");
-        JsonNode startLogging = start != null ? start.get("loggingLv") : null;
         if (currentLogging != null) {
-            ConfigParamDto loggingParam = new ConfigParamDto();
-            loggingParam.setKey("loggingLv");
-            loggingParam.setValue(currentLogging.asText());
-            loggingParam.setType("logLevel");
-            
-            if (startLogging != null) {
-                loggingParam.setStartValue(startLogging.asText());
-            } else {
-                loggingParam.setStartValue(currentLogging.asText());
-            }
-            
-            dto.setLoggingLevel(loggingParam);
+            JsonNode startLogging = start != null ? start.get("loggingLv") : null;
+            String value = viewText(currentLogging);
+            dto.setLoggingLevel(new ConfigParamDto("loggingLv", value,
+                    startLogging != null ? viewText(startLogging) : value, "logLevel"));
         }
-        
+
         return dto;
     }
 
+    private void addViewParams(List<ConfigParamDto> target, JsonNode current, JsonNode start,
+                               String sectionName, String type) {
+        JsonNode section = current.get(sectionName);
+        if (section == null || !section.isObject()) {
+            return;
+        }
+        JsonNode startSection = start != null ? start.get(sectionName) : null;
+        section.fields().forEachRemaining(entry -> {
+            String value = viewText(entry.getValue());
+            JsonNode startValue = startSection != null ? startSection.get(entry.getKey()) : null;
+            target.add(new ConfigParamDto(entry.getKey(), value,
+                    startValue != null ? viewText(startValue) : value, type));
+        });
+    }
+
+    /**
+     * Значение параметра как текст; не скалярные значения (объект, массив) показываются JSON
+     */
+    private static String viewText(JsonNode value) {
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    /**
+     * @param expectedVersion версия, открытая в форме; null - сохранять поверх последней
+     * @return false, если форма не меняет текущий конфиг
+     * @throws OptimisticLockingFailureException если конфиг изменился после открытия формы
+     */
     @Transactional
     public boolean updateConfigFromForm(String systemName, Map<String, String> delays, 
-                                        Map<String, String> stringParams, Map<String, String> intParams, Map<String, String> booleanVariables, String loggingLv) {
-        StoredConfigEntity entity = repository.findBySystemName(SystemNameUtils.sanitize(systemName))
-                .orElseThrow(() -> new IllegalArgumentException("Config not found: " + systemName));
-        
-        StoredConfig stored = mapper.toModel(entity);
-        
+                                        Map<String, String> stringParams, Map<String, String> intParams, Map<String, String> booleanVariables,
+                                        String loggingLv, Integer expectedVersion) {
         JsonNode newConfig = createConfigFromForm(delays, stringParams, intParams, booleanVariables, loggingLv);
         
-        // Валидируем созданный конфиг
-        validateConfig(newConfig);
-        
-        JsonNode normalizedNewConfig = normalizeJsonNode(newConfig);
-        JsonNode normalizedCurrentConfig = normalizeJsonNode(stored.getCurrentConfig());
-        
-        boolean hasChanges = !jsonEquals(normalizedCurrentConfig, normalizedNewConfig);
-        
-        if (!hasChanges) {
-            return false;
-        }
+        // Валидируем созданный конфиг; сравнение по типизированной модели не считает изменениями
+        // замену "2000" на 2000 и другой порядок ключей, поэтому сохранение формы без правок не поднимает версию
+        TypedConfig newTyped = TypedConfig.of(newConfig);
+        long newDigest = JsonDigest.of(newConfig);
         
-        entity.setVersion(entity.getVersion() + 1);
-        entity.setCurrentConfigJson(jsonToString(normalizedNewConfig));
-        entity.setUpdatedAt(Instant.now());
-        repository.save(entity);
-        return true;
+        Optional<StoredConfigEntity> written = writeWithRetry(systemName, expectedVersion, current -> {
+            StoredConfig stored = mapper.toModel(current);
+            if (newTyped.equals(stored.getCurrentTyped())) {
+                return Optional.of(Optional.empty());
+            }
+            return compareAndSave(current, stored.getCurrentConfig(), newConfig,
+                    next -> setCurrentConfig(next, newConfig, newDigest)).map(Optional::of);
+        });
+        return written.isPresent();
     }
 
     /**
@@ -543,75 +880,10 @@ public class ConfigService {
         if (config == null) {
             return;
         }
-        
-        if (config.has("delays") && config.get("delays").isObject()) {
-            config.get("delays").fields().forEachRemaining(entry -> {
-                String key = entry.getKey();
-                JsonNode valueNode = entry.getValue();
-                
-                int intValue;
-                if (valueNode.isNumber()) {
-                    if (!valueNode.isInt()) {
-                        throw new IllegalArgumentException("Значение задержки '" + key + "' должно быть целым числом");
-                    }
-                    intValue = valueNode.asInt();
-                } else if (valueNode.isTextual()) {
-                    try {
-                        intValue = Integer.parseInt(valueNode.asText());
-                    } catch (NumberFormatException e) {
-                        throw new IllegalArgumentException("Значение задержки '" + key + "' должно быть целым числом");
-                    }
-                } else {
-                    throw new IllegalArgumentException("Значение задержки '" + key + "' должно быть целым числом");
-                }
-                
-                if (intValue < 0) {
-                    throw new IllegalArgumentException("Значение задержки '" + key + "' должно быть неотрицательным числом");
-                }
-            });
-        }
-        
-        if (config.has("intParams") && config.get("intParams").isObject()) {
-            config.get("intParams").fields().forEachRemaining(entry -> {
-                String key = entry.getKey();
-                JsonNode valueNode = entry.getValue();
-                
-                if (valueNode.isNumber()) {
-                    if (!valueNode.isInt()) {
-                        throw new IllegalArgumentException("Значение целочисленного параметра '" + key + "' должно быть целым числом");
-                    }
-                } else if (valueNode.isTextual()) {
-                    try {
-                        Integer.parseInt(valueNode.asText());
-                    } catch (NumberFormatException e) {
-                        throw new IllegalArgumentException("Значение целочисленного параметра '" + key + "' должно быть целым числом");
-                    }
-                } else {
-                    throw new IllegalArgumentException("Значение целочисленного параметра '" + key + "' должно быть целым числом");
-                }
-            });
-        }
-        
-        if (config.has("booleanVariables") && config.get("booleanVariables").isObject()) {
-            config.get("booleanVariables").fields().forEachRemaining(entry -> {
-                String key = entry.getKey();
-                JsonNode valueNode = entry.getValue();
-                
-                if (valueNode.isBoolean()) {
-                    // Значение уже булево - все хорошо
-                } else if (valueNode.isTextual()) {
-                    String textValue = valueNode.asText().toLowerCase().trim();
-                    if (!"true".equals(textValue) && !"false".equals(textValue)) {
-                        throw new IllegalArgumentException("Значение булевой переменной '" + key + "' должно быть 'true' или 'false', получено: " + valueNode.asText());
-                    }
-                } else {
-                    throw new IllegalArgumentException("Значение булевой переменной '" + key + "' должно быть булевым значением или строкой 'true'/'false'");
-                }
-            });
-        }
-        
-        // stringParams не требуют специфической валидации, так как могут быть любыми строками
+        // Валидация выполняется при построении типизированной модели.
+        // stringParams не требуют специфической валидации, так как могут быть любыми строками;
         // loggingLv валидируется на уровне UI и при парсинге в enum
+        TypedConfig.of(config);
     }
 
     public JsonNode createConfigFromForm(Map<String, String> delays, Map<String, String> stringParams, Map<String, String> intParams, Map<String, String> booleanVariables, String loggingLv) {
@@ -714,6 +986,28 @@ public class ConfigService {
             throw new IllegalArgumentException("Config not found: " + systemName);
         }
         repository.deleteById(sanitizedName); // sanitizedName не может быть null после sanitize()
+        versionLog.deleteBySystemName(sanitizedName);
+        configCache.evict(sanitizedName);
+        clusterSync.notifyConfigDeleted(sanitizedName);
         logger.info("Deleted config for {}", systemName);
     }
+
+    /**
+     * Результат групповой отправки конфигов
+     */
+    public static class GroupPushResult {
+        private final String groupId;
+        private final Map<String, String> versions;
+        private final String updatedAt;
+
+        public GroupPushResult(String groupId, Map<String, String> versions, String updatedAt) {
+            this.groupId = groupId;
+            this.versions = versions;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getGroupId() { return groupId; }
+        public Map<String, String> getVersions() { return versions; }
+        public String getUpdatedAt() { return updatedAt; }
+    }
 }
@@ -0,0 +1,135 @@
+package com.mockcontroller.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mockcontroller.model.entity.ConfigVersionEntity;
+import com.mockcontroller.repository.ConfigVersionRepository;
+import com.mockcontroller.util.JsonMergePatch;
+import com.mockcontroller.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Журнал версий конфигов: при каждом изменении версии записывается merge patch от предыдущей версии.
+ * По журналу строится разница между версией пода и текущей (GET /api/configs/{systemName}?since=vN),
+ * чтобы при изменении одного параметра под получал десятки байт вместо всего конфига.
+ */
+@Service
+public class ConfigVersionLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigVersionLog.class);
+
+    private final ConfigVersionRepository repository;
+    private final ObjectMapper objectMapper;
+    // Готовые разницы "система|от|до". MissingNode - разницу построить нельзя (нужен полный конфиг)
+    private final Map<String, JsonNode> deltaCache;
+
+    @Value("${app.config.delta-max-chain:50}")
+    private int maxChain;
+
+    public ConfigVersionLog(ConfigVersionRepository repository, ObjectMapper objectMapper,
+                            @Value("${app.config.delta-cache-size:1024}") int deltaCacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.deltaCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonNode> eldest) {
+                return size() > deltaCacheSize;
+            }
+        });
+    }
+
+    /**
+     * Записывает новую версию. Вызывается в транзакции изменения конфига.
+     *
+     * @param previousConfig конфиг предыдущей версии или null (первая регистрация) - тогда сохраняется полный конфиг
+     */
+    public void append(String systemName, int version, JsonNode previousConfig, JsonNode currentConfig) {
+        ObjectNode patch = previousConfig != null ? JsonMergePatch.diff(previousConfig, currentConfig) : null;
+        boolean fullSnapshot = patch == null;
+        JsonNode stored = fullSnapshot ? currentConfig : patch;
+        repository.save(new ConfigVersionEntity(systemName, version, toJson(stored), fullSnapshot, Instant.now()));
+    }
+
+    /**
+     * Разница от версии fromVersion до toVersion, объединенная в один merge patch
+     *
+     * @return патч или empty, если цепочка длиннее лимита, неполная или содержит полный конфиг
+     */
+    public Optional<JsonNode> findDelta(String systemName, int fromVersion, int toVersion) {
+        if (fromVersion < 1 || fromVersion >= toVersion || toVersion - fromVersion > maxChain) {
+            return Optional.empty();
+        }
+        String key = systemName + "|" + fromVersion + "|" + toVersion;
+        JsonNode cached = deltaCache.get(key);
+        if (cached == null) {
+            cached = buildDelta(systemName, fromVersion, toVersion);
+            deltaCache.put(key, cached);
+        }
+        return cached.isMissingNode() ? Optional.empty() : Optional.of(cached);
+    }
+
+    public void deleteBySystemName(String systemName) {
+        repository.deleteBySystemName(systemName);
+        // После удаления номера версий могут начаться заново - старые разницы больше не верны
+        TransactionUtils.afterCommit(() -> evictCached(systemName));
+    }
+
+    /**
+     * Убирает из памяти готовые разницы системы (в том числе после удаления на другой реплике)
+     */
+    public void evictCached(String systemName) {
+        deltaCache.keySet().removeIf(key -> key.startsWith(systemName + "|"));
+    }
+
+    private JsonNode buildDelta(String systemName, int fromVersion, int toVersion) {
+        List<ConfigVersionEntity> chain =
+            repository.findBySystemNameAndVersionBetweenOrderByVersionAsc(systemName, fromVersion + 1, toVersion);
+        if (chain.size() != toVersion - fromVersion) {
+            // Пропуски (версии до появления журнала) или дубликаты версий
+            return MissingNode.getInstance();
+        }
+        JsonNode delta = null;
+        int expectedVersion = fromVersion + 1;
+        for (ConfigVersionEntity entry : chain) {
+            if (entry.getVersion() != expectedVersion++ || entry.isFullSnapshot()) {
+                return MissingNode.getInstance();
+            }
+            JsonNode patch = parse(entry.getPatchJson());
+            delta = delta == null ? patch : JsonMergePatch.compose(delta, patch);
+            if (delta == null) {
+                return MissingNode.getInstance();
+            }
+        }
+        return delta;
+    }
+
+    private String toJson(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            return node.toString();
+        }
+    }
+
+    private JsonNode parse(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            logger.warn("Corrupted config version patch: {}", e.getMessage());
+            return null;
+        }
+    }
+}
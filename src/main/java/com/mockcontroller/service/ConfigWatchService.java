@@ -0,0 +1,222 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.model.CheckUpdateResponse;
+import com.mockcontroller.util.SystemNameUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подписки заглушек на изменения конфига (Server-Sent Events).
+ * Вместо периодического checkUpdate под держит открытое соединение и получает событие
+ * сразу после коммита новой версии - из UI, API или планировщика.
+ *
+ * События отправляются ограниченным пулом потоков, а не потоком, который закоммитил изменение
+ * (тик планировщика, HTTP-запрос): медленный или зависший подписчик не задерживает запись конфигов.
+ * У подписчика в очереди не больше одной отправки - несколько версий подряд сливаются в последнюю.
+ */
+@Service
+public class ConfigWatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatchService.class);
+    private static final String EVENT_NAME = "config-update";
+
+    private final ConfigCache configCache;
+    private final ConcurrentMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${app.watch.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${app.watch.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${app.watch.send-queue-size:10000}")
+    private int sendQueueSize;
+
+    @Value("${app.watch.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private ThreadPoolExecutor sendExecutor;
+
+    public ConfigWatchService(ConfigCache configCache) {
+        this.configCache = configCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "config-watch-send-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Подписывает заглушку на изменения конфига.
+     * Если известная заглушке версия уже устарела - событие отправляется сразу.
+     */
+    public SseEmitter subscribe(String systemName, String knownVersion) {
+        String sanitizedName = SystemNameUtils.sanitize(systemName);
+        SseEmitter emitter = new SseEmitter(timeoutSeconds * 1000);
+        Subscriber subscriber = new Subscriber(sanitizedName, emitter);
+
+        subscribers.compute(sanitizedName, (k, existing) -> {
+            Set<Subscriber> result = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Проверяем версию после регистрации, чтобы не потерять изменение между запросом и подпиской
+        if (knownVersion != null && !knownVersion.trim().isEmpty()) {
+            int known = ConfigService.parseVersion(knownVersion);
+            configCache.get(sanitizedName).ifPresent(cached -> {
+                if (known < cached.getVersion()) {
+                    notify(subscriber, cached.getVersion());
+                }
+            });
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(ConfigChangedEvent event) {
+        Set<Subscriber> systemSubscribers = subscribers.get(event.getSystemName());
+        if (systemSubscribers == null || systemSubscribers.isEmpty()) {
+            return;
+        }
+        logger.debug("Notifying {} subscribers of {} about v{}", systemSubscribers.size(), event.getSystemName(), event.getVersion());
+        for (Subscriber subscriber : systemSubscribers) {
+            notify(subscriber, event.getVersion());
+        }
+    }
+
+    /**
+     * Групповая отправка: одно событие на все системы группы
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGroupConfigChanged(GroupConfigChangedEvent event) {
+        event.getVersions().forEach((systemName, version) -> onConfigChanged(new ConfigChangedEvent(systemName, version)));
+    }
+
+    public int getSubscriberCount(String systemName) {
+        Set<Subscriber> systemSubscribers = subscribers.get(SystemNameUtils.sanitize(systemName));
+        return systemSubscribers != null ? systemSubscribers.size() : 0;
+    }
+
+    /**
+     * Отписывает подписчиков, отправка которым идет дольше app.watch.send-timeout-ms (соединение
+     * зависло). Поток отправки освободится по таймауту записи сервера, новые события подписчику не ставятся
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> systemSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : systemSubscribers) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince > 0 && now - sendingSince > sendTimeoutMs) {
+                    logger.debug("Dropping stalled watch subscriber of {}", subscriber.systemName);
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ставит отправку версии подписчику в пул. Если отправка уже в очереди, она отправит эту версию
+     */
+    private void notify(Subscriber subscriber, int version) {
+        subscriber.latestVersion.accumulateAndGet(version, Math::max);
+        if (!subscriber.queued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Очередь переполнена - подписчик переподключится и получит актуальную версию при подписке
+            logger.warn("Watch send queue is full, dropping subscriber of {}", subscriber.systemName);
+            drop(subscriber, e);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        while (true) {
+            int version = subscriber.latestVersion.get();
+            if (version > subscriber.sentVersion) {
+                subscriber.sendingSince = System.currentTimeMillis();
+                try {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(EVENT_NAME)
+                            .data(new CheckUpdateResponse(true, "v" + version)));
+                    subscriber.sentVersion = version;
+                } catch (IOException | IllegalStateException e) {
+                    // Под отключился - убираем подписку
+                    drop(subscriber, e);
+                    return;
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+            subscriber.queued.set(false);
+            // Версия могла прийти во время отправки, пока флаг был установлен - отправляем ее этим же вызовом
+            if (subscriber.latestVersion.get() <= subscriber.sentVersion || !subscriber.queued.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber, Throwable cause) {
+        unsubscribe(subscriber);
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.systemName, (k, systemSubscribers) -> {
+            systemSubscribers.remove(subscriber);
+            return systemSubscribers.isEmpty() ? null : systemSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final String systemName;
+        private final SseEmitter emitter;
+        // Последняя версия, о которой нужно сообщить, и есть ли уже отправка в очереди
+        private final AtomicInteger latestVersion = new AtomicInteger();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        // Меняется только в отправке, которая держит флаг queued (у подписчика не больше одной отправки одновременно)
+        private int sentVersion;
+        // Время начала текущей отправки, 0 - отправки нет
+        private volatile long sendingSince;
+
+        private Subscriber(String systemName, SseEmitter emitter) {
+            this.systemName = systemName;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.model.Group;
+import com.mockcontroller.repository.GroupRepository;
+import com.mockcontroller.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory каталог групп с индексами по id, по имени без учета регистра и по имени заглушки.
+ * Заполняется при старте и обновляется из GroupService после коммита каждого изменения,
+ * поэтому регистрация заглушки и поиск группы по имени не читают из базы все группы.
+ *
+ * Чтение идет без блокировок; изменения выполняются под монитором и меняют в индексах только
+ * затронутую группу (добавление заглушки - одну запись). Наружу отдаются копии Group.
+ */
+@Component
+public class GroupCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCatalog.class);
+
+    private static final Comparator<Group> BY_NAME =
+            Comparator.comparing(Group::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Group::getId);
+
+    private final GroupRepository repository;
+    private final GroupMapper mapper;
+
+    // Группы хранятся с неизменяемым списком заглушек
+    private final ConcurrentMap<String, Group> byId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> groupIdsBySystem = new ConcurrentHashMap<>();
+    // Отсортированный по имени список строится при первом чтении после изменения
+    private volatile List<Group> sorted;
+    // id -> имя в том же порядке (вкладки групп): строится вместе с sorted, отдается без копирования
+    private volatile Map<String, String> sortedNames;
+
+    public GroupCatalog(GroupRepository repository, GroupMapper mapper) {
+        this.repository = repository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Полная загрузка каталога из базы: при старте и после переподключения к каналу синхронизации реплик
+     */
+    @PostConstruct
+    public synchronized void load() {
+        byId.clear();
+        idByName.clear();
+        groupIdsBySystem.clear();
+        repository.findAllWithSystems().stream()
+                .map(mapper::toModel)
+                .forEach(group -> index(frozen(group)));
+        invalidateSorted();
+        logger.info("Group catalog loaded: {} groups", byId.size());
+    }
+
+    /**
+     * Все группы, отсортированные по имени
+     */
+    public List<Group> findAll() {
+        List<Group> groups = sorted;
+        if (groups == null) {
+            groups = sortedGroups();
+        }
+        List<Group> result = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            result.add(copy(group));
+        }
+        return result;
+    }
+
+    /**
+     * Имена всех групп по id в порядке сортировки по имени - без копирования групп и списков заглушек
+     */
+    public Map<String, String> findAllNames() {
+        Map<String, String> names = sortedNames;
+        return names != null ? names : sortedNamesLocked();
+    }
+
+    public Optional<Group> findById(String id) {
+        return Optional.ofNullable(id).map(byId::get).map(GroupCatalog::copy);
+    }
+
+    public Optional<Group> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return findById(idByName.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Группы, в которые входит заглушка
+     */
+    public Set<String> findGroupIdsBySystem(String systemName) {
+        Set<String> groupIds = systemName != null ? groupIdsBySystem.get(systemName) : null;
+        return groupIds != null ? Collections.unmodifiableSet(groupIds) : Collections.emptySet();
+    }
+
+    public boolean containsSystem(String groupId, String systemName) {
+        return findGroupIdsBySystem(systemName).contains(groupId);
+    }
+
+    /**
+     * Кладет группу целиком (создание, редактирование) после коммита текущей транзакции
+     */
+    public void put(Group group) {
+        Group frozen = frozen(group);
+        TransactionUtils.afterCommit(() -> replace(frozen.getId(), frozen));
+    }
+
+    public void remove(String groupId) {
+        TransactionUtils.afterCommit(() -> replace(groupId, null));
+    }
+
+    /**
+     * Добавляет одну заглушку в группу после коммита (без перечитывания группы)
+     */
+    public void addSystem(String groupId, String systemName) {
+        TransactionUtils.afterCommit(() -> changeMembers(groupId, systemName, true));
+    }
+
+    public void removeSystem(String groupId, String systemName) {
+        TransactionUtils.afterCommit(() -> changeMembers(groupId, systemName, false));
+    }
+
+    /**
+     * Группа изменена на другой реплике - перечитываем только ее
+     */
+    @EventListener
+    public void onGroupChanged(GroupChangedEvent event) {
+        String groupId = event.getGroupId();
+        Group group = repository.findWithSystemsById(groupId).map(mapper::toModel).orElse(null);
+        replace(groupId, group != null ? frozen(group) : null);
+    }
+
+    private synchronized List<Group> sortedGroups() {
+        // Под монитором: изменение между построением и записью списка не потеряется
+        if (sorted == null) {
+            List<Group> built = new ArrayList<>(byId.values());
+            built.sort(BY_NAME);
+            Map<String, String> names = new LinkedHashMap<>();
+            built.forEach(group -> names.put(group.getId(), group.getName()));
+            sortedNames = Collections.unmodifiableMap(names);
+            sorted = List.copyOf(built);
+        }
+        return sorted;
+    }
+
+    private synchronized Map<String, String> sortedNamesLocked() {
+        // Под тем же монитором, что и изменения: между построением и чтением имена не сбросятся
+        sortedGroups();
+        return sortedNames;
+    }
+
+    private synchronized void changeMembers(String groupId, String systemName, boolean add) {
+        Group group = byId.get(groupId);
+        if (group == null || group.getSystemNames().contains(systemName) == add) {
+            return;
+        }
+        List<String> systemNames = new ArrayList<>(group.getSystemNames());
+        if (add) {
+            systemNames.add(systemName);
+            groupIdsBySystem.computeIfAbsent(systemName, k -> ConcurrentHashMap.newKeySet()).add(groupId);
+        } else {
+            systemNames.remove(systemName);
+            unlinkSystem(groupId, systemName);
+        }
+        byId.put(groupId, new Group(group.getId(), group.getName(), group.getDescription(),
+                List.copyOf(systemNames), group.getCreatedAt()));
+        invalidateSorted();
+    }
+
+    private synchronized void replace(String groupId, Group group) {
+        Group previous = byId.remove(groupId);
+        if (previous != null) {
+            String key = previous.getName().toLowerCase(Locale.ROOT);
+            if (idByName.remove(key, groupId)) {
+                // Другая группа с тем же именем без учета регистра (в базе имена не уникальны)
+                byId.values().stream()
+                        .filter(other -> other.getName().equalsIgnoreCase(previous.getName()))
+                        .min(BY_NAME)
+                        .ifPresent(other -> idByName.put(key, other.getId()));
+            }
+            previous.getSystemNames().forEach(systemName -> unlinkSystem(groupId, systemName));
+        }
+        if (group != null) {
+            index(group);
+        }
+        invalidateSorted();
+    }
+
+    private void invalidateSorted() {
+        sorted = null;
+        sortedNames = null;
+    }
+
+    private void index(Group group) {
+        byId.put(group.getId(), group);
+        idByName.merge(group.getName().toLowerCase(Locale.ROOT), group.getId(),
+                (existing, candidate) -> BY_NAME.compare(byId.get(candidate), byId.get(existing)) < 0 ? candidate : existing);
+        for (String systemName : group.getSystemNames()) {
+            groupIdsBySystem.computeIfAbsent(systemName, k -> ConcurrentHashMap.newKeySet()).add(group.getId());
+        }
+    }
+
+    private void unlinkSystem(String groupId, String systemName) {
+        groupIdsBySystem.computeIfPresent(systemName, (k, ids) -> {
+            ids.remove(groupId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Group frozen(Group group) {
+        return new Group(group.getId(), group.getName(), group.getDescription(),
+                List.copyOf(group.getSystemNames()), group.getCreatedAt());
+    }
+
+    private static Group copy(Group group) {
+        return new Group(group.getId(), group.getName(), group.getDescription(),
+                new ArrayList<>(group.getSystemNames()), group.getCreatedAt());
+    }
+}
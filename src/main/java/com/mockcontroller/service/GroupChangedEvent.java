@@ -0,0 +1,18 @@
+package com.mockcontroller.service;
+
+/**
+ * Группа изменена на другой реплике контроллера (получено через ClusterCacheSync).
+ * Для in-memory состояния групп на этой реплике.
+ */
+public class GroupChangedEvent {
+
+    private final String groupId;
+
+    public GroupChangedEvent(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+}
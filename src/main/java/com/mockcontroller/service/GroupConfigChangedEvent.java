@@ -0,0 +1,28 @@
+package com.mockcontroller.service;
+
+import java.util.Map;
+
+/**
+ * Событие групповой отправки конфигов: новые версии всех систем группы сохранены в базе одной транзакцией
+ */
+public class GroupConfigChangedEvent {
+
+    private final String groupId;
+    private final Map<String, Integer> versions;
+
+    public GroupConfigChangedEvent(String groupId, Map<String, Integer> versions) {
+        this.groupId = groupId;
+        this.versions = versions;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return systemName -> новая версия
+     */
+    public Map<String, Integer> getVersions() {
+        return versions;
+    }
+}
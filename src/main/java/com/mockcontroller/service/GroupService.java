@@ -10,37 +10,61 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+/**
+ * Группы заглушек. Чтение идет из in-memory каталога (GroupCatalog), изменения пишутся в базу
+ * и попадают в каталог после коммита.
+ */
 @Service
 public class GroupService {
 
     private final GroupRepository repository;
     private final GroupSystemRepository systemRepository;
     private final GroupMapper mapper;
+    private final GroupCatalog catalog;
+    private final ClusterCacheSync clusterSync;
 
     public GroupService(GroupRepository repository, 
                        GroupSystemRepository systemRepository,
-                       GroupMapper mapper) {
+                       GroupMapper mapper,
+                       GroupCatalog catalog,
+                       ClusterCacheSync clusterSync) {
         this.repository = repository;
         this.systemRepository = systemRepository;
         this.mapper = mapper;
+        this.catalog = catalog;
+        this.clusterSync = clusterSync;
     }
 
     public Collection<Group> findAll() {
-        return repository.findAllByOrderByNameAsc().stream()
-                .map(mapper::toModel)
-                .collect(Collectors.toList());
+        return catalog.findAll();
+    }
+
+    /**
+     * id -> имя всех групп в порядке сортировки по имени (из каталога, без копирования групп)
+     */
+    public Map<String, String> findAllNames() {
+        return catalog.findAllNames();
     }
 
     public Optional<Group> findById(String id) {
-        return repository.findById(id).map(mapper::toModel);
+        return catalog.findById(id);
     }
 
     public Optional<Group> findByName(String name) {
-        return repository.findByNameIgnoreCase(name).map(mapper::toModel);
+        return catalog.findByName(name);
+    }
+
+    /**
+     * Входит ли заглушка в группу (по индексу каталога, без перебора заглушек группы)
+     */
+    public boolean containsSystem(String groupId, String systemName) {
+        return catalog.containsSystem(groupId, systemName);
     }
 
     @Transactional
@@ -51,17 +75,15 @@ public class GroupService {
         entity.setCreatedAt(Instant.now());
 
         // Добавляем системы в группу перед сохранением
-        if (systemNames != null && !systemNames.isEmpty()) {
-            for (String systemName : systemNames) {
-                if (systemName != null && !systemName.trim().isEmpty()) {
-                    GroupSystemEntity systemEntity = new GroupSystemEntity(entity, systemName);
-                    entity.getSystems().add(systemEntity);
-                }
-            }
+        for (String systemName : normalize(systemNames)) {
+            entity.getSystems().add(new GroupSystemEntity(entity, systemName));
         }
         
         entity = repository.save(entity);
-        return mapper.toModel(entity);
+        clusterSync.notifyGroupChanged(entity.getId());
+        Group group = mapper.toModel(entity);
+        catalog.put(group);
+        return group;
     }
 
     @Transactional
@@ -72,22 +94,21 @@ public class GroupService {
         entity.setName(name);
         entity.setDescription(description);
         
-        // Удаляем старые системы
-        systemRepository.deleteByGroupId(id);
-        entity.getSystems().clear();
-        
-        // Добавляем новые системы
-        if (systemNames != null && !systemNames.isEmpty()) {
-            for (String systemName : systemNames) {
-                if (systemName != null && !systemName.trim().isEmpty()) {
-                    GroupSystemEntity systemEntity = new GroupSystemEntity(entity, systemName);
-                    entity.getSystems().add(systemEntity);
-                }
-            }
+        // Меняем только разницу: удаленные заглушки удаляются (orphanRemoval), новые добавляются по одной строке
+        Set<String> requested = normalize(systemNames);
+        entity.getSystems().removeIf(system -> !requested.contains(system.getSystemName()));
+        for (GroupSystemEntity system : entity.getSystems()) {
+            requested.remove(system.getSystemName());
+        }
+        for (String systemName : requested) {
+            entity.getSystems().add(new GroupSystemEntity(entity, systemName));
         }
         
         entity = repository.save(entity);
-        return mapper.toModel(entity);
+        clusterSync.notifyGroupChanged(id);
+        Group group = mapper.toModel(entity);
+        catalog.put(group);
+        return group;
     }
 
     @Transactional
@@ -97,12 +118,33 @@ public class GroupService {
         }
         systemRepository.deleteByGroupId(id);
         repository.deleteById(id);
+        clusterSync.notifyGroupChanged(id);
+        catalog.remove(id);
     }
 
     public List<String> getSystemsByGroupId(String groupId) {
-        return systemRepository.findByGroup_Id(groupId).stream()
-                .map(GroupSystemEntity::getSystemName)
-                .collect(Collectors.toList());
+        return catalog.findById(groupId)
+                .map(Group::getSystemNames)
+                .orElseGet(List::of);
+    }
+
+    /**
+     * Добавляет одну заглушку в группу одним INSERT (группа и остальные заглушки не перечитываются)
+     *
+     * @return false, если заглушка уже в группе
+     */
+    @Transactional
+    public boolean addSystemToGroup(String groupId, String systemName) {
+        if (catalog.findById(groupId).isEmpty()) {
+            throw new IllegalArgumentException("Group not found: " + groupId);
+        }
+        if (catalog.containsSystem(groupId, systemName)) {
+            return false;
+        }
+        systemRepository.save(new GroupSystemEntity(repository.getReferenceById(groupId), systemName));
+        clusterSync.notifyGroupChanged(groupId);
+        catalog.addSystem(groupId, systemName);
+        return true;
     }
 
     @Transactional
@@ -111,6 +153,19 @@ public class GroupService {
             throw new IllegalArgumentException("Group not found: " + groupId);
         }
         systemRepository.deleteByGroupIdAndSystemName(groupId, systemName);
+        clusterSync.notifyGroupChanged(groupId);
+        catalog.removeSystem(groupId, systemName);
     }
-}
 
+    private Set<String> normalize(List<String> systemNames) {
+        Set<String> result = new LinkedHashSet<>();
+        if (systemNames != null) {
+            for (String systemName : systemNames) {
+                if (systemName != null && !systemName.trim().isEmpty()) {
+                    result.add(systemName);
+                }
+            }
+        }
+        return result;
+    }
+}
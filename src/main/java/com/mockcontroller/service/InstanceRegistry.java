@@ -0,0 +1,263 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.model.entity.MockInstanceEntity;
+import com.mockcontroller.repository.MockInstanceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory реестр живых инстансов (подов) заглушек - источник данных для страниц статусов
+ * и проверки здоровья групп. Для каждой системы поддерживаются счетчики онлайн/офлайн подов,
+ * которые меняются при healthcheck и при периодическом пересчете (sweep), а не считаются
+ * заново на каждый запрос. База используется только как снимок для восстановления после рестарта
+ * (запись выполняет MockStatusService.flushHealthchecks).
+ */
+@Component
+public class InstanceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceRegistry.class);
+
+    private final MockInstanceRepository repository;
+    private final ConcurrentMap<String, SystemEntry> systems = new ConcurrentHashMap<>();
+
+    @Value("${app.status.offline-threshold-seconds:300}")
+    private int offlineThresholdSeconds;
+
+    @Value("${app.status.stats-window-seconds:300}")
+    private int statsWindowSeconds;
+
+    @Value("${app.status.cleanup-threshold-seconds:3600}")
+    private int cleanupThresholdSeconds;
+
+    public InstanceRegistry(MockInstanceRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<MockInstanceEntity> instances = repository.findAll();
+        for (MockInstanceEntity instance : instances) {
+            if (instance.getLastHealthcheckTime() != null) {
+                record(instance.getSystemName(), instance.getInstanceId(),
+                    instance.getLastHealthcheckTime().toEpochMilli());
+            }
+        }
+        logger.info("Instance registry restored: {} instances of {} systems", instances.size(), systems.size());
+    }
+
+    public void record(String systemName, String instanceId, long timeMillis) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            SystemEntry entry = systems.computeIfAbsent(systemName, SystemEntry::new);
+            if (entry.record(instanceId, timeMillis, now, this)) {
+                return;
+            }
+            // Запись системы удалена параллельно (sweep или removeSystem) - повторяем с новой
+        }
+    }
+
+    public void removeSystem(String systemName) {
+        SystemEntry entry = systems.get(systemName);
+        if (entry != null) {
+            entry.markRemoved();
+            systems.remove(systemName, entry);
+        }
+    }
+
+    /**
+     * Пересчитывает состояния инстансов по времени и удаляет давно молчащие
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (SystemEntry entry : systems.values()) {
+            if (entry.sweep(now, this)) {
+                systems.remove(entry.systemName, entry);
+            }
+        }
+    }
+
+    /**
+     * Снимки всех систем, у которых есть хотя бы один учитываемый инстанс
+     */
+    public Map<String, SystemSnapshot> snapshotAll() {
+        Map<String, SystemSnapshot> result = new HashMap<>();
+        for (SystemEntry entry : systems.values()) {
+            SystemSnapshot snapshot = entry.snapshot();
+            if (snapshot.getTotalCount() > 0) {
+                result.put(entry.systemName, snapshot);
+            }
+        }
+        return result;
+    }
+
+    public Optional<SystemSnapshot> snapshot(String systemName) {
+        SystemEntry entry = systems.get(systemName);
+        return entry != null ? Optional.of(entry.snapshot()) : Optional.empty();
+    }
+
+    public List<InstanceSnapshot> getInstances(String systemName) {
+        SystemEntry entry = systems.get(systemName);
+        return entry != null ? entry.instances() : List.of();
+    }
+
+    public boolean isOnline(long lastSeenMillis, long now) {
+        return lastSeenMillis > now - offlineThresholdSeconds * 1000L;
+    }
+
+    private InstanceState classify(long lastSeenMillis, long now) {
+        if (lastSeenMillis < now - statsWindowSeconds * 1000L) {
+            return InstanceState.STALE;
+        }
+        return isOnline(lastSeenMillis, now) ? InstanceState.ONLINE : InstanceState.OFFLINE;
+    }
+
+    private boolean isExpired(long lastSeenMillis, long now) {
+        return lastSeenMillis < now - cleanupThresholdSeconds * 1000L;
+    }
+
+    private enum InstanceState {
+        ONLINE,
+        OFFLINE,
+        // Не отправлял healthcheck дольше stats-window - в статистике не учитывается
+        STALE
+    }
+
+    private static final class InstanceEntry {
+        private long lastSeen;
+        private InstanceState state = InstanceState.STALE;
+    }
+
+    /**
+     * Инстансы одной системы. Все изменения выполняются под монитором записи,
+     * поэтому блокировка затрагивает только одну систему.
+     */
+    private static final class SystemEntry {
+        private final String systemName;
+        private final Map<String, InstanceEntry> instances = new HashMap<>();
+        private int onlineCount;
+        private int offlineCount;
+        private boolean removed;
+
+        private SystemEntry(String systemName) {
+            this.systemName = systemName;
+        }
+
+        synchronized boolean record(String instanceId, long timeMillis, long now, InstanceRegistry registry) {
+            if (removed) {
+                return false;
+            }
+            InstanceEntry instance = instances.computeIfAbsent(instanceId, k -> new InstanceEntry());
+            if (timeMillis > instance.lastSeen) {
+                instance.lastSeen = timeMillis;
+            }
+            transition(instance, registry.classify(instance.lastSeen, now));
+            return true;
+        }
+
+        /**
+         * @return true, если у системы не осталось инстансов и запись удалена
+         */
+        synchronized boolean sweep(long now, InstanceRegistry registry) {
+            Iterator<InstanceEntry> iterator = instances.values().iterator();
+            while (iterator.hasNext()) {
+                InstanceEntry instance = iterator.next();
+                if (registry.isExpired(instance.lastSeen, now)) {
+                    transition(instance, InstanceState.STALE);
+                    iterator.remove();
+                } else {
+                    transition(instance, registry.classify(instance.lastSeen, now));
+                }
+            }
+            if (instances.isEmpty()) {
+                removed = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void markRemoved() {
+            removed = true;
+            instances.clear();
+            onlineCount = 0;
+            offlineCount = 0;
+        }
+
+        synchronized SystemSnapshot snapshot() {
+            long lastSeen = 0;
+            for (InstanceEntry instance : instances.values()) {
+                if (instance.state != InstanceState.STALE && instance.lastSeen > lastSeen) {
+                    lastSeen = instance.lastSeen;
+                }
+            }
+            return new SystemSnapshot(onlineCount, offlineCount, lastSeen > 0 ? Instant.ofEpochMilli(lastSeen) : null);
+        }
+
+        synchronized List<InstanceSnapshot> instances() {
+            List<InstanceSnapshot> result = new ArrayList<>(instances.size());
+            instances.forEach((id, instance) -> result.add(new InstanceSnapshot(id, instance.lastSeen)));
+            return result;
+        }
+
+        private void transition(InstanceEntry instance, InstanceState newState) {
+            if (instance.state == newState) {
+                return;
+            }
+            if (instance.state == InstanceState.ONLINE) {
+                onlineCount--;
+            } else if (instance.state == InstanceState.OFFLINE) {
+                offlineCount--;
+            }
+            if (newState == InstanceState.ONLINE) {
+                onlineCount++;
+            } else if (newState == InstanceState.OFFLINE) {
+                offlineCount++;
+            }
+            instance.state = newState;
+        }
+    }
+
+    public static class SystemSnapshot {
+        private final int onlineCount;
+        private final int offlineCount;
+        private final Instant lastHealthcheckTime;
+
+        public SystemSnapshot(int onlineCount, int offlineCount, Instant lastHealthcheckTime) {
+            this.onlineCount = onlineCount;
+            this.offlineCount = offlineCount;
+            this.lastHealthcheckTime = lastHealthcheckTime;
+        }
+
+        public int getOnlineCount() { return onlineCount; }
+        public int getOfflineCount() { return offlineCount; }
+        public int getTotalCount() { return onlineCount + offlineCount; }
+        public Instant getLastHealthcheckTime() { return lastHealthcheckTime; }
+    }
+
+    public static class InstanceSnapshot {
+        private final String instanceId;
+        private final long lastSeenMillis;
+
+        public InstanceSnapshot(String instanceId, long lastSeenMillis) {
+            this.instanceId = instanceId;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+
+        public String getInstanceId() { return instanceId; }
+        public long getLastSeenMillis() { return lastSeenMillis; }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mockcontroller.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gauge онлайн/офлайн подов по системам (mockcontroller.instances{system, state=online|offline}).
+ * Значения берутся из счетчиков InstanceRegistry; набор систем пересчитывается периодически,
+ * ушедшие системы удаляются из метрик.
+ */
+@Component
+public class InstanceStatusMetrics {
+
+    private final InstanceRegistry instanceRegistry;
+    private final MultiGauge instancesGauge;
+
+    public InstanceStatusMetrics(InstanceRegistry instanceRegistry, MeterRegistry meterRegistry) {
+        this.instanceRegistry = instanceRegistry;
+        this.instancesGauge = MultiGauge.builder("mockcontroller.instances")
+            .description("Mock instances (pods) per system by state")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.instances-refresh-ms:10000}")
+    public void refresh() {
+        Map<String, InstanceRegistry.SystemSnapshot> snapshots = instanceRegistry.snapshotAll();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(snapshots.size() * 2);
+        snapshots.forEach((systemName, snapshot) -> {
+            rows.add(MultiGauge.Row.of(Tags.of("system", systemName, "state", "online"), snapshot.getOnlineCount()));
+            rows.add(MultiGauge.Row.of(Tags.of("system", systemName, "state", "offline"), snapshot.getOfflineCount()));
+        });
+        instancesGauge.register(rows, true);
+    }
+}
@@ -1,7 +1,13 @@
 package com.mockcontroller.service;
 
-import com.mockcontroller.model.entity.MockInstanceEntity;
+import com.mockcontroller.repository.MockInstanceBatchRepository;
+import com.mockcontroller.repository.MockInstanceBatchRepository.HealthcheckRow;
 import com.mockcontroller.repository.MockInstanceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -11,115 +17,135 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class MockStatusService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MockStatusService.class);
+
     private final MockInstanceRepository repository;
-    
-    @Value("${app.status.offline-threshold-seconds:300}")
-    private int offlineThresholdSeconds;
-    
-    @Value("${app.status.stats-window-seconds:300}")
-    private int statsWindowSeconds;
+    private final MockInstanceBatchRepository batchRepository;
+    private final InstanceRegistry instanceRegistry;
+    private final ClusterCacheSync clusterCacheSync;
+    private final Timer healthcheckTimer;
+
+    // Буфер входящих healthcheck: для каждого инстанса хранится только последнее время
+    private final ConcurrentMap<InstanceKey, Instant> pendingHealthchecks = new ConcurrentHashMap<>();
     
     @Value("${app.status.cleanup-threshold-seconds:3600}")
     private int cleanupThresholdSeconds;
 
-    public MockStatusService(MockInstanceRepository repository) {
+    public MockStatusService(MockInstanceRepository repository, MockInstanceBatchRepository batchRepository,
+                             InstanceRegistry instanceRegistry, ClusterCacheSync clusterCacheSync,
+                             MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.batchRepository = batchRepository;
+        this.instanceRegistry = instanceRegistry;
+        this.clusterCacheSync = clusterCacheSync;
+        this.healthcheckTimer = Timer.builder("mockcontroller.healthcheck.register")
+            .description("Time to accept a mock healthcheck into the registry and flush buffer")
+            .register(meterRegistry);
     }
 
-    @Transactional
+    /**
+     * Принимает healthcheck в in-memory реестр и буфер без обращения к базе.
+     * В базу буфер записывается пакетно в flushHealthchecks.
+     */
     public void registerHealthcheck(String systemName, String instanceId) {
+        long start = System.nanoTime();
         String safeSystemName = sanitize(systemName);
         String safeInstanceId = instanceId != null && !instanceId.trim().isEmpty() 
             ? instanceId.trim() 
             : "default";
 
-        Optional<MockInstanceEntity> existing = repository.findBySystemNameAndInstanceId(
-            safeSystemName, safeInstanceId);
+        Instant now = Instant.now();
+        instanceRegistry.record(safeSystemName, safeInstanceId, now.toEpochMilli());
+        pendingHealthchecks.put(new InstanceKey(safeSystemName, safeInstanceId), now);
+        healthcheckTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
 
-        if (existing.isPresent()) {
-            MockInstanceEntity entity = existing.get();
-            entity.setLastHealthcheckTime(Instant.now());
-            repository.save(entity);
-        } else {
-            MockInstanceEntity entity = new MockInstanceEntity(safeSystemName, safeInstanceId);
-            entity.setLastHealthcheckTime(Instant.now());
-            repository.save(entity);
+    /**
+     * Записывает накопленные healthcheck в базу одним multi-row upsert и рассылает их другим репликам,
+     * так как healthcheck одного пода может приходить на любую реплику за балансировщиком
+     */
+    @Scheduled(fixedDelayString = "${app.status.healthcheck-flush-interval-ms:1000}")
+    public void flushHealthchecks() {
+        if (pendingHealthchecks.isEmpty()) {
+            return;
+        }
+        List<HealthcheckRow> rows = new ArrayList<>(pendingHealthchecks.size());
+        for (Map.Entry<InstanceKey, Instant> entry : pendingHealthchecks.entrySet()) {
+            // Удаляем только если значение не обновилось после чтения, иначе новое время попадет в следующий flush
+            if (pendingHealthchecks.remove(entry.getKey(), entry.getValue())) {
+                rows.add(new HealthcheckRow(entry.getKey().systemName, entry.getKey().instanceId, entry.getValue()));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            batchRepository.upsertHealthchecks(rows);
+            logger.debug("Flushed {} healthchecks", rows.size());
+        } catch (Exception e) {
+            // Возвращаем записи в буфер, не затирая более свежие healthcheck
+            for (HealthcheckRow row : rows) {
+                pendingHealthchecks.merge(new InstanceKey(row.getSystemName(), row.getInstanceId()),
+                    row.getLastHealthcheckTime(), (current, failed) -> current.isAfter(failed) ? current : failed);
+            }
+            logger.warn("Failed to flush {} healthchecks, will retry: {}", rows.size(), e.getMessage());
+            return;
+        }
+        try {
+            clusterCacheSync.notifyHealthchecks(rows);
+        } catch (Exception e) {
+            // Записи уже в базе: другие реплики подхватят их при переподключении слушателя
+            logger.warn("Failed to notify replicas about {} healthchecks: {}", rows.size(), e.getMessage());
         }
     }
 
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushHealthchecks();
+    }
+
     public Map<String, SystemStatus> getAllSystemStatuses() {
-        // Получаем все инстансы из базы
+        // Статусы берутся из in-memory реестра, без запросов к базе
         // Важно: если у заглушки все поды удалены (0 подов), она не попадет в результат
         // и не будет отображаться на странице статусов, но сама заглушка остается
         // зарегистрированной в системе (если была зарегистрирована через конфиги)
-        List<MockInstanceEntity> allInstances = repository.findAllByOrderBySystemNameAsc();
-        
-        // Фильтруем инстансы: учитываем только те, которые отправляли healthcheck за последние statsWindowSeconds
-        Instant statsWindowThreshold = Instant.now().minus(statsWindowSeconds, ChronoUnit.SECONDS);
+        Map<String, InstanceRegistry.SystemSnapshot> snapshots = instanceRegistry.snapshotAll();
         
         Map<String, SystemStatus> statusMap = new LinkedHashMap<>();
-        
-        for (MockInstanceEntity instance : allInstances) {
-            // Пропускаем инстансы без healthcheck
-            if (instance.getLastHealthcheckTime() == null) {
-                continue;
-            }
-            // Пропускаем инстансы, которые не отправляли healthcheck за последние statsWindowSeconds
-            if (instance.getLastHealthcheckTime().isBefore(statsWindowThreshold)) {
-                continue;
-            }
-            
-            String systemName = instance.getSystemName();
-            SystemStatus status = statusMap.computeIfAbsent(systemName, 
-                k -> new SystemStatus(systemName));
-            
-            boolean isOnline = isInstanceOnline(instance);
-            if (isOnline) {
-                status.incrementOnlineCount();
-            } else {
-                status.incrementOfflineCount();
-            }
-            
-            if (status.getLastHealthcheckTime() == null || 
-                instance.getLastHealthcheckTime().isAfter(status.getLastHealthcheckTime())) {
-                status.setLastHealthcheckTime(instance.getLastHealthcheckTime());
-            }
-        }
+        snapshots.keySet().stream()
+            .sorted()
+            .forEach(systemName -> {
+                InstanceRegistry.SystemSnapshot snapshot = snapshots.get(systemName);
+                statusMap.put(systemName, new SystemStatus(systemName, snapshot.getOnlineCount(),
+                    snapshot.getOfflineCount(), snapshot.getLastHealthcheckTime()));
+            });
         
         return statusMap;
     }
 
     public List<InstanceStatus> getInstancesBySystem(String systemName) {
         String safeSystemName = sanitize(systemName);
-        List<MockInstanceEntity> instances = repository.findBySystemName(safeSystemName);
+        long now = System.currentTimeMillis();
         
-        return instances.stream()
-            .map(instance -> {
-                boolean isOnline = isInstanceOnline(instance);
-                return new InstanceStatus(
-                    instance.getSystemName(),
-                    instance.getInstanceId(),
-                    instance.getLastHealthcheckTime(),
-                    isOnline
-                );
-            })
+        return instanceRegistry.getInstances(safeSystemName).stream()
+            .map(instance -> new InstanceStatus(
+                safeSystemName,
+                instance.getInstanceId(),
+                Instant.ofEpochMilli(instance.getLastSeenMillis()),
+                instanceRegistry.isOnline(instance.getLastSeenMillis(), now)
+            ))
             .sorted(Comparator.comparing(InstanceStatus::getLastHealthcheckTime).reversed())
             .collect(Collectors.toList());
     }
 
-    private boolean isInstanceOnline(MockInstanceEntity instance) {
-        if (instance.getLastHealthcheckTime() == null) {
-            return false;
-        }
-        Instant threshold = Instant.now().minus(offlineThresholdSeconds, ChronoUnit.SECONDS);
-        return instance.getLastHealthcheckTime().isAfter(threshold);
-    }
-
     @Scheduled(fixedRate = 60000) // Каждую минуту
     @Transactional
     public void cleanupOldInstances() {
@@ -136,7 +162,10 @@ public class MockStatusService {
     @Transactional
     public void removeSystemFromStatus(String systemName) {
         String safeSystemName = sanitize(systemName);
+        pendingHealthchecks.keySet().removeIf(key -> key.systemName.equals(safeSystemName));
+        instanceRegistry.removeSystem(safeSystemName);
         repository.deleteBySystemName(safeSystemName);
+        clusterCacheSync.notifyInstancesRemoved(safeSystemName);
     }
 
     /**
@@ -148,36 +177,12 @@ public class MockStatusService {
         List<SystemHealthInfo> systemsInfo = new ArrayList<>();
         boolean allSystemsHaveOnlinePods = true;
         
-        // Фильтруем инстансы: учитываем только те, которые отправляли healthcheck за последние statsWindowSeconds
-        Instant statsWindowThreshold = Instant.now().minus(statsWindowSeconds, ChronoUnit.SECONDS);
-        
         for (String systemName : groupSystems) {
-            String safeSystemName = sanitize(systemName);
-            List<MockInstanceEntity> instances = repository.findBySystemName(safeSystemName);
-            
-            int onlineCount = 0;
-            int offlineCount = 0;
-            int totalCount = 0;
-            
-            for (MockInstanceEntity instance : instances) {
-                // Пропускаем инстансы без healthcheck
-                if (instance.getLastHealthcheckTime() == null) {
-                    continue;
-                }
-                
-                // Учитываем только инстансы, которые отправляли healthcheck за последние statsWindowSeconds
-                if (instance.getLastHealthcheckTime().isBefore(statsWindowThreshold)) {
-                    continue;
-                }
-                
-                totalCount++;
-                boolean isOnline = isInstanceOnline(instance);
-                if (isOnline) {
-                    onlineCount++;
-                } else {
-                    offlineCount++;
-                }
-            }
+            // Счетчики поддерживаются реестром, учитываются только инстансы за последние statsWindowSeconds
+            Optional<InstanceRegistry.SystemSnapshot> snapshot = instanceRegistry.snapshot(sanitize(systemName));
+            int onlineCount = snapshot.map(InstanceRegistry.SystemSnapshot::getOnlineCount).orElse(0);
+            int offlineCount = snapshot.map(InstanceRegistry.SystemSnapshot::getOfflineCount).orElse(0);
+            int totalCount = onlineCount + offlineCount;
             
             boolean hasOnlinePods = onlineCount > 0;
             if (!hasOnlinePods) {
@@ -244,6 +249,33 @@ public class MockStatusService {
         }
     }
 
+    private static final class InstanceKey {
+        private final String systemName;
+        private final String instanceId;
+
+        private InstanceKey(String systemName, String instanceId) {
+            this.systemName = systemName;
+            this.instanceId = instanceId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InstanceKey)) {
+                return false;
+            }
+            InstanceKey other = (InstanceKey) o;
+            return systemName.equals(other.systemName) && instanceId.equals(other.instanceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * systemName.hashCode() + instanceId.hashCode();
+        }
+    }
+
     private String sanitize(String name) {
         if (name == null) {
             return "";
@@ -261,6 +293,13 @@ public class MockStatusService {
             this.systemName = systemName;
         }
 
+        public SystemStatus(String systemName, int onlineCount, int offlineCount, Instant lastHealthcheckTime) {
+            this.systemName = systemName;
+            this.onlineCount = onlineCount;
+            this.offlineCount = offlineCount;
+            this.lastHealthcheckTime = lastHealthcheckTime;
+        }
+
         public String getSystemName() {
             return systemName;
         }
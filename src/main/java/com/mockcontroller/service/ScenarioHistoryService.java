@@ -3,23 +3,44 @@ package com.mockcontroller.service;
 import com.mockcontroller.model.Group;
 import com.mockcontroller.model.Scenario;
 import com.mockcontroller.model.ScheduledConfigUpdate;
+import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import com.mockcontroller.repository.ScheduledConfigUpdateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ScenarioHistoryService {
 
-    private final ScheduledConfigService scheduledConfigService;
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioHistoryService.class);
+
+    public static final String ALL_GROUPS = "all";
+    private static final String UNKNOWN_GROUP_ID = "unknown";
+    // Нижняя граница scheduledTime для первой страницы запланированных: в раздел попадают и наступившие,
+    // но еще не примененные обновления (опоздание планировщика, ошибка применения, партиция у другой реплики)
+    private static final LocalDateTime SCHEDULED_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Верхняя граница appliedAt для первой страницы выполненных
+    private static final LocalDateTime COMPLETED_UPPER_BOUND = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final ScheduledConfigUpdateRepository repository;
+    private final ScheduledConfigMapper mapper;
     private final ScenarioService scenarioService;
     private final GroupService groupService;
 
-    public ScenarioHistoryService(ScheduledConfigService scheduledConfigService,
+    public ScenarioHistoryService(ScheduledConfigUpdateRepository repository,
+                                 ScheduledConfigMapper mapper,
                                  ScenarioService scenarioService,
                                  GroupService groupService) {
-        this.scheduledConfigService = scheduledConfigService;
+        this.repository = repository;
+        this.mapper = mapper;
         this.scenarioService = scenarioService;
         this.groupService = groupService;
     }
@@ -69,126 +90,149 @@ public class ScenarioHistoryService {
     }
 
     /**
-     * Получает историю сценариев, сгруппированную по группам
+     * Страница истории: записи текущей страницы, сгруппированные по группам, и курсор следующей страницы.
+     * Общего числа записей нет: его подсчет читал бы всю историю на каждой странице.
      */
-    public List<ScenarioHistoryGroup> getHistoryByGroups() {
-        List<ScheduledConfigUpdate> allUpdates = scheduledConfigService.getAllScenarioUpdates();
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Извлекаем информацию о сценариях из комментариев
-        List<ScheduledUpdateInfo> updateInfos = allUpdates.stream()
-                .map(this::extractScenarioInfo)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        
-        // Разделяем на запланированные и выполненные
-        // Запланированные: не примененные и время еще не наступило
-        List<ScheduledUpdateInfo> scheduled = updateInfos.stream()
-                .filter(info -> {
-                    Boolean applied = info.getUpdate().getApplied();
-                    boolean isNotApplied = applied == null || !applied;
-                    LocalDateTime scheduledTime = info.getUpdate().getScheduledTime();
-                    return isNotApplied && scheduledTime != null && scheduledTime.isAfter(now);
-                })
-                .sorted(Comparator.comparing(info -> info.getUpdate().getScheduledTime()))
-                .collect(Collectors.toList());
-        
-        // Выполненные: примененные или время уже прошло (но только примененные для истории)
-        List<ScheduledUpdateInfo> completed = updateInfos.stream()
-                .filter(info -> {
-                    Boolean applied = info.getUpdate().getApplied();
-                    boolean isApplied = applied != null && applied;
-                    // Показываем в выполненных только те, которые реально применены
-                    return isApplied;
-                })
-                .sorted((info1, info2) -> {
-                    LocalDateTime time1 = info1.getUpdate().getAppliedAt();
-                    LocalDateTime time2 = info2.getUpdate().getAppliedAt();
-                    if (time1 == null && time2 == null) {
-                        // Если нет времени применения, используем scheduledTime
-                        time1 = info1.getUpdate().getScheduledTime();
-                        time2 = info2.getUpdate().getScheduledTime();
-                    }
-                    if (time1 == null && time2 == null) return 0;
-                    if (time1 == null) return 1;
-                    if (time2 == null) return -1;
-                    return time2.compareTo(time1); // Обратный порядок: от нового к старому
-                })
-                .collect(Collectors.toList());
-        
-        // Получаем все сценарии и группы
-        Collection<Scenario> scenarios = scenarioService.findAll();
-        Collection<Group> groups = groupService.findAll();
-        
-        // Создаем карту: название сценария -> группа
-        Map<String, String> scenarioToGroupId = new HashMap<>();
-        Map<String, String> scenarioToGroupName = new HashMap<>();
-        Map<String, String> scenarioToGroupDescription = new HashMap<>();
-        
-        for (Scenario scenario : scenarios) {
-            String scenarioName = scenario.getName();
-            String groupId = scenario.getGroupId();
-            
-            Optional<Group> groupOpt = groups.stream()
-                    .filter(g -> g.getId().equals(groupId))
-                    .findFirst();
-            
-            if (groupOpt.isPresent()) {
-                Group group = groupOpt.get();
-                scenarioToGroupId.put(scenarioName, groupId);
-                scenarioToGroupName.put(scenarioName, group.getName());
-                scenarioToGroupDescription.put(scenarioName, group.getDescription() != null ? group.getDescription() : "");
+    public static class HistoryPage {
+        private final List<ScenarioHistoryGroup> groups;
+        private final String nextCursor;
+
+        public HistoryPage(List<ScenarioHistoryGroup> groups, String nextCursor) {
+            this.groups = groups;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<ScenarioHistoryGroup> getGroups() { return groups; }
+        public String getNextCursor() { return nextCursor; }
+    }
+
+    /**
+     * Заполняет scenario_id/group_id у обновлений, созданных до появления этих колонок
+     * (сценарий определяется по названию из комментария, как это делалось раньше)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillLegacyUpdates() {
+        List<ScheduledConfigUpdateEntity> legacy = repository.findLegacyScenarioUpdates();
+        if (legacy.isEmpty()) {
+            return;
+        }
+        Map<String, Scenario> scenariosByName = new HashMap<>();
+        for (Scenario scenario : scenarioService.findAll()) {
+            scenariosByName.putIfAbsent(scenario.getName(), scenario);
+        }
+        for (ScheduledConfigUpdateEntity entity : legacy) {
+            String[] parsed = parseComment(entity.getComment());
+            Scenario scenario = parsed != null ? scenariosByName.get(parsed[0]) : null;
+            if (scenario != null) {
+                entity.setScenarioId(scenario.getId());
+                entity.setGroupId(scenario.getGroupId());
+            } else {
+                entity.setGroupId(UNKNOWN_GROUP_ID);
+            }
+            if (entity.getApplied() && entity.getAppliedAt() == null) {
+                entity.setAppliedAt(entity.getScheduledTime());
             }
         }
-        
-        // Группируем по группам
-        Map<String, ScenarioHistoryGroup> groupsMap = new LinkedHashMap<>();
-        
-        // Обрабатываем запланированные
-        for (ScheduledUpdateInfo info : scheduled) {
-            String groupId = scenarioToGroupId.get(info.getScenarioName());
-            if (groupId == null) {
-                // Если группа не найдена, создаем группу "Без группы"
-                groupId = "unknown";
-                if (!groupsMap.containsKey(groupId)) {
-                    groupsMap.put(groupId, new ScenarioHistoryGroup("unknown", "Без группы", ""));
-                }
+        repository.saveAll(legacy);
+        logger.info("Backfilled scenario/group ids for {} legacy scheduled updates", legacy.size());
+    }
+
+    /**
+     * Получает страницу истории сценариев. Сначала идут все еще не примененные (от самого раннего,
+     * включая уже наступившие), затем выполненные (от последнего к старым).
+     *
+     * @param groupId ID группы или null/"all" для всех групп
+     * @param cursor курсор, полученный с предыдущей страницы (null - первая страница)
+     * @param pageSize размер страницы
+     */
+    @Transactional(readOnly = true)
+    public HistoryPage getHistoryPage(String groupId, String cursor, int pageSize) {
+        boolean allGroups = groupId == null || groupId.isEmpty() || ALL_GROUPS.equals(groupId);
+        HistoryCursor position = HistoryCursor.parse(cursor);
+
+        List<ScheduledConfigUpdateEntity> scheduled = List.of();
+        List<ScheduledConfigUpdateEntity> completed = List.of();
+        String nextCursor = null;
+
+        if (position == null || position.scheduled) {
+            LocalDateTime afterTime = position != null ? position.time : SCHEDULED_LOWER_BOUND;
+            String afterId = position != null ? position.id : "";
+            PageRequest limit = PageRequest.of(0, pageSize + 1);
+            List<ScheduledConfigUpdateEntity> rows = allGroups
+                ? repository.findScheduledHistoryPageAllGroups(afterTime, afterId, limit)
+                : repository.findScheduledHistoryPage(groupId, afterTime, afterId, limit);
+            if (rows.size() > pageSize) {
+                scheduled = rows.subList(0, pageSize);
+                nextCursor = HistoryCursor.scheduled(scheduled.get(pageSize - 1));
             } else {
-                if (!groupsMap.containsKey(groupId)) {
-                    String groupName = scenarioToGroupName.get(info.getScenarioName());
-                    String groupDescription = scenarioToGroupDescription.get(info.getScenarioName());
-                    groupsMap.put(groupId, new ScenarioHistoryGroup(groupId, groupName, groupDescription));
-                }
+                scheduled = rows;
             }
-            groupsMap.get(groupId).getScheduled().add(info);
         }
-        
-        // Обрабатываем выполненные
-        for (ScheduledUpdateInfo info : completed) {
-            String groupId = scenarioToGroupId.get(info.getScenarioName());
-            if (groupId == null) {
-                groupId = "unknown";
-                if (!groupsMap.containsKey(groupId)) {
-                    groupsMap.put(groupId, new ScenarioHistoryGroup("unknown", "Без группы", ""));
-                }
+
+        if (nextCursor == null) {
+            // Запланированные закончились на этой странице - добираем выполненные
+            int remaining = pageSize - scheduled.size();
+            boolean continueCompleted = position != null && !position.scheduled && position.time != null;
+            LocalDateTime beforeTime = continueCompleted ? position.time : COMPLETED_UPPER_BOUND;
+            String beforeId = continueCompleted ? position.id : "";
+            PageRequest limit = PageRequest.of(0, remaining + 1);
+            List<ScheduledConfigUpdateEntity> rows = allGroups
+                ? repository.findCompletedHistoryPageAllGroups(beforeTime, beforeId, limit)
+                : repository.findCompletedHistoryPage(groupId, beforeTime, beforeId, limit);
+            if (rows.size() > remaining) {
+                completed = rows.subList(0, remaining);
+                nextCursor = remaining > 0
+                    ? HistoryCursor.completed(completed.get(remaining - 1))
+                    : HistoryCursor.COMPLETED_START;
             } else {
-                if (!groupsMap.containsKey(groupId)) {
-                    String groupName = scenarioToGroupName.get(info.getScenarioName());
-                    String groupDescription = scenarioToGroupDescription.get(info.getScenarioName());
-                    groupsMap.put(groupId, new ScenarioHistoryGroup(groupId, groupName, groupDescription));
-                }
+                completed = rows;
             }
-            groupsMap.get(groupId).getCompleted().add(info);
         }
-        
-        return new ArrayList<>(groupsMap.values());
+
+        // Группируем записи страницы по группам (группы берутся из каталога только для записей страницы)
+        Map<String, ScenarioHistoryGroup> groupsMap = new LinkedHashMap<>();
+        for (ScheduledConfigUpdateEntity entity : scheduled) {
+            historyGroup(groupsMap, entity.getGroupId()).getScheduled().add(toInfo(entity));
+        }
+        for (ScheduledConfigUpdateEntity entity : completed) {
+            historyGroup(groupsMap, entity.getGroupId()).getCompleted().add(toInfo(entity));
+        }
+
+        return new HistoryPage(new ArrayList<>(groupsMap.values()), nextCursor);
+    }
+
+    private ScenarioHistoryGroup historyGroup(Map<String, ScenarioHistoryGroup> groupsMap, String groupId) {
+        ScenarioHistoryGroup existing = groupsMap.get(groupId);
+        if (existing != null) {
+            return existing;
+        }
+        Optional<Group> group = groupService.findById(groupId);
+        if (group.isEmpty()) {
+            // Группа удалена или не определена - создаем группу "Без группы"
+            return groupsMap.computeIfAbsent(UNKNOWN_GROUP_ID,
+                id -> new ScenarioHistoryGroup(UNKNOWN_GROUP_ID, "Без группы", ""));
+        }
+        Group found = group.get();
+        ScenarioHistoryGroup historyGroup = new ScenarioHistoryGroup(found.getId(), found.getName(),
+            found.getDescription() != null ? found.getDescription() : "");
+        groupsMap.put(groupId, historyGroup);
+        return historyGroup;
+    }
+
+    private ScheduledUpdateInfo toInfo(ScheduledConfigUpdateEntity entity) {
+        String[] parsed = parseComment(entity.getComment());
+        return new ScheduledUpdateInfo(mapper.toModel(entity),
+            parsed != null ? parsed[0] : null,
+            parsed != null ? parsed[1] : null);
     }
-    
+
     /**
-     * Извлекает информацию о сценарии из комментария
+     * Извлекает название сценария и комментарий ступени из комментария
+     *
+     * @return [название сценария, комментарий ступени] или null, если это не комментарий сценария
      */
-    private ScheduledUpdateInfo extractScenarioInfo(ScheduledConfigUpdate update) {
-        String comment = update.getComment();
+    private static String[] parseComment(String comment) {
         if (comment == null || !comment.contains("Сценарий:")) {
             return null;
         }
@@ -207,16 +251,60 @@ public class ScenarioHistoryService {
             }
         } else {
             // Только сценарий без комментария
-            if (comment.contains("Сценарий:")) {
-                scenarioName = comment.substring(comment.indexOf("Сценарий:") + "Сценарий:".length()).trim();
-            }
+            scenarioName = comment.substring(comment.indexOf("Сценарий:") + "Сценарий:".length()).trim();
         }
         
         if (scenarioName == null || scenarioName.isEmpty()) {
             return null;
         }
         
-        return new ScheduledUpdateInfo(update, scenarioName, stepComment);
+        return new String[] {scenarioName, stepComment};
     }
-}
 
+    /**
+     * Позиция в истории: раздел (запланированные/выполненные) и ключ последней показанной записи.
+     * Формат: "s|время|id" или "c|время|id"; "c" - начало раздела выполненных.
+     */
+    private static final class HistoryCursor {
+        private static final String COMPLETED_START = "c";
+
+        private final boolean scheduled;
+        private final LocalDateTime time;
+        private final String id;
+
+        private HistoryCursor(boolean scheduled, LocalDateTime time, String id) {
+            this.scheduled = scheduled;
+            this.time = time;
+            this.id = id;
+        }
+
+        static String scheduled(ScheduledConfigUpdateEntity last) {
+            return "s|" + last.getScheduledTime() + "|" + last.getId();
+        }
+
+        static String completed(ScheduledConfigUpdateEntity last) {
+            return "c|" + last.getAppliedAt() + "|" + last.getId();
+        }
+
+        /**
+         * @return позиция или null для первой страницы (в том числе при некорректном курсоре)
+         */
+        static HistoryCursor parse(String cursor) {
+            if (cursor == null || cursor.isEmpty()) {
+                return null;
+            }
+            if (COMPLETED_START.equals(cursor)) {
+                return new HistoryCursor(false, null, null);
+            }
+            String[] parts = cursor.split("\\|", 3);
+            if (parts.length != 3 || !("s".equals(parts[0]) || "c".equals(parts[0]))) {
+                return null;
+            }
+            try {
+                return new HistoryCursor("s".equals(parts[0]), LocalDateTime.parse(parts[1]), parts[2]);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mockcontroller.service;
 
 import com.mockcontroller.model.Scenario;
 import com.mockcontroller.model.ScenarioStep;
+import com.mockcontroller.model.Template;
 import com.mockcontroller.model.entity.ScenarioEntity;
 import com.mockcontroller.model.entity.ScenarioStepEntity;
 import com.mockcontroller.repository.ScenarioRepository;
@@ -11,9 +12,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,13 +44,11 @@ public class ScenarioService {
     }
 
     public Collection<Scenario> findAll() {
-        return scenarioRepository.findAll().stream()
-                .map(entity -> {
-                    Scenario scenario = mapper.toModel(entity);
-                    loadSteps(scenario);
-                    return scenario;
-                })
+        List<Scenario> scenarios = scenarioRepository.findAll().stream()
+                .map(mapper::toModel)
                 .collect(Collectors.toList());
+        loadSteps(scenarios);
+        return scenarios;
     }
 
     public Optional<Scenario> findById(String id) {
@@ -63,21 +67,62 @@ public class ScenarioService {
         });
     }
 
+    /**
+     * Названия сценариев по ID без загрузки шагов (для отчетов)
+     */
+    public Map<String, String> findNamesByIds(Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            scenarioRepository.findAllById(ids).forEach(entity -> names.put(entity.getId(), entity.getName()));
+        }
+        return names;
+    }
+
     private void loadSteps(Scenario scenario) {
-        List<ScenarioStep> steps = stepRepository.findByScenarioIdOrderByStepOrderAsc(scenario.getId())
-                .stream()
-                .map(stepEntity -> {
-                    ScenarioStep step = mapper.toModel(stepEntity);
-                    // Загружаем шаблон для шага
-                    if (step.getTemplateId() != null && !step.getTemplateId().trim().isEmpty()) {
-                        templateRepository.findById(step.getTemplateId())
-                                .map(templateMapper::toModel)
-                                .ifPresent(step::setTemplate);
-                    }
-                    return step;
-                })
-                .collect(Collectors.toList());
-        scenario.setSteps(steps);
+        loadSteps(List.of(scenario));
+    }
+
+    /**
+     * Загружает шаги и шаблоны для набора сценариев за постоянное число запросов:
+     * один запрос на все шаги и один на все используемые шаблоны.
+     * Каждый шаблон парсится один раз, шаги с одинаковым templateId получают общий объект.
+     */
+    private void loadSteps(Collection<Scenario> scenarios) {
+        if (scenarios.isEmpty()) {
+            return;
+        }
+        Set<String> scenarioIds = scenarios.stream()
+                .map(Scenario::getId)
+                .collect(Collectors.toSet());
+        List<ScenarioStepEntity> stepEntities =
+                stepRepository.findByScenarioIdInOrderByScenarioIdAscStepOrderAsc(scenarioIds);
+
+        Set<String> templateIds = new HashSet<>();
+        for (ScenarioStepEntity stepEntity : stepEntities) {
+            if (stepEntity.getTemplateId() != null && !stepEntity.getTemplateId().trim().isEmpty()) {
+                templateIds.add(stepEntity.getTemplateId());
+            }
+        }
+        Map<String, Template> templates = new HashMap<>();
+        if (!templateIds.isEmpty()) {
+            templateRepository.findAllById(templateIds)
+                    .forEach(entity -> templates.put(entity.getId(), templateMapper.toModel(entity)));
+        }
+
+        Map<String, List<ScenarioStep>> stepsByScenario = new HashMap<>();
+        for (ScenarioStepEntity stepEntity : stepEntities) {
+            ScenarioStep step = mapper.toModel(stepEntity);
+            if (step.getTemplateId() != null) {
+                Template template = templates.get(step.getTemplateId());
+                if (template != null) {
+                    step.setTemplate(template);
+                }
+            }
+            stepsByScenario.computeIfAbsent(stepEntity.getScenarioId(), k -> new ArrayList<>()).add(step);
+        }
+        for (Scenario scenario : scenarios) {
+            scenario.setSteps(stepsByScenario.getOrDefault(scenario.getId(), new ArrayList<>()));
+        }
     }
 
     @Transactional
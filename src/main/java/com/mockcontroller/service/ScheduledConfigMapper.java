@@ -29,6 +29,10 @@ public class ScheduledConfigMapper {
         entity.setComment(update.getComment());
         entity.setApplied(update.getApplied());
         entity.setAppliedAt(update.getAppliedAt());
+        entity.setLagMs(update.getLagMs());
+        entity.setScenarioId(update.getScenarioId());
+        entity.setGroupId(update.getGroupId());
+        entity.setRunId(update.getRunId());
         return entity;
     }
 
@@ -45,6 +49,10 @@ public class ScheduledConfigMapper {
         update.setComment(entity.getComment());
         update.setApplied(entity.getApplied());
         update.setAppliedAt(entity.getAppliedAt());
+        update.setLagMs(entity.getLagMs());
+        update.setScenarioId(entity.getScenarioId());
+        update.setGroupId(entity.getGroupId());
+        update.setRunId(entity.getRunId());
         return update;
     }
 
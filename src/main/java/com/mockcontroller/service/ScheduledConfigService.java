@@ -4,17 +4,32 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mockcontroller.model.ScheduledConfigUpdate;
 import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import com.mockcontroller.repository.ScheduledConfigUpdateBatchRepository;
 import com.mockcontroller.repository.ScheduledConfigUpdateRepository;
 import com.mockcontroller.util.DateTimeUtils;
+import com.mockcontroller.util.JsonDigest;
 import com.mockcontroller.util.SystemNameUtils;
+import com.mockcontroller.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,14 +40,50 @@ public class ScheduledConfigService {
     private final ObjectMapper objectMapper;
     private final ConfigService configService;
     private final ScheduledConfigUpdateRepository repository;
+    private final ScheduledConfigUpdateBatchRepository batchRepository;
     private final ScheduledConfigMapper mapper;
+    private final ScheduledUpdateTimer timer;
+    // Длительность одного прохода применения наступивших обновлений и количество примененных
+    private final Timer tickTimer;
+    private final Counter appliedCounter;
+    private final MeterRegistry meterRegistry;
+    private final SchedulerLeaseManager leaseManager;
+    private final ClusterCacheSync clusterSync;
 
     public ScheduledConfigService(ObjectMapper objectMapper, ConfigService configService,
-                                  ScheduledConfigUpdateRepository repository, ScheduledConfigMapper mapper) {
+                                  ScheduledConfigUpdateRepository repository,
+                                  ScheduledConfigUpdateBatchRepository batchRepository,
+                                  ScheduledConfigMapper mapper, ScheduledUpdateTimer timer,
+                                  MeterRegistry meterRegistry, SchedulerLeaseManager leaseManager,
+                                  ClusterCacheSync clusterSync) {
         this.objectMapper = objectMapper;
         this.configService = configService;
         this.repository = repository;
+        this.batchRepository = batchRepository;
         this.mapper = mapper;
+        this.timer = timer;
+        this.meterRegistry = meterRegistry;
+        this.leaseManager = leaseManager;
+        this.clusterSync = clusterSync;
+        this.tickTimer = Timer.builder("mockcontroller.scheduler.tick")
+            .description("Duration of one pass applying due scheduled config updates")
+            .register(meterRegistry);
+        this.appliedCounter = Counter.builder("mockcontroller.scheduler.updates.applied")
+            .description("Scheduled config updates applied")
+            .register(meterRegistry);
+    }
+
+    /**
+     * При старте ставит на таймер все не примененные обновления из базы.
+     * Просроченные (наступившие во время простоя) применяются сразу.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingUpdates() {
+        List<ScheduledConfigUpdateEntity> pending = repository.findPendingUpdates();
+        for (ScheduledConfigUpdateEntity entity : pending) {
+            timer.schedule(entity.getId(), entity.getScheduledTime());
+        }
+        logger.info("Loaded {} pending scheduled updates into timer", pending.size());
     }
 
     @Transactional
@@ -76,6 +127,7 @@ public class ScheduledConfigService {
                         isDuplicateNotApplied &&
                         jsonConfigsEqual(duplicate.getNewConfigJson(), newConfigJson)) {
                         repository.deleteById(duplicate.getId());
+                        timer.cancel(duplicate.getId());
                         logger.debug("Removed duplicate scheduled update {} for {} at {}", 
                             duplicate.getId(), safeSystemName, scheduledTime);
                     }
@@ -97,11 +149,134 @@ public class ScheduledConfigService {
             scheduledTime, 
             comment);
         entity = repository.save(entity);
+        timer.schedule(entity.getId(), entity.getScheduledTime());
+        clusterSync.notifyUpdatesScheduled(Map.of(entity.getId(), entity.getScheduledTime()));
         logger.info("Scheduled update created for {} at {} (id: {}) with comment: '{}'", 
             safeSystemName, scheduledTime, entity.getId(), entity.getComment());
         return mapper.toModel(entity);
     }
     
+    /**
+     * Планирует пачку обновлений (например, все шаги сценария) в одной транзакции.
+     * Дубликаты ищутся одним запросом по всем системам пачки, новые обновления вставляются
+     * одним JDBC batch. Правила объединения дубликатов те же, что в scheduleUpdate:
+     * совпадение системы, времени и конфига - объединяются комментарии.
+     *
+     * @param items элементы пачки
+     * @return результат по каждому элементу в порядке входного списка
+     */
+    @Transactional
+    public List<BatchItemResult> scheduleBatch(List<BatchItem> items) {
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        List<PendingUpdate> incoming = new ArrayList<>(items.size());
+        Set<String> systemNames = new HashSet<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for (BatchItem item : items) {
+            if (item.getNewConfig() == null) {
+                results.add(BatchItemResult.rejected(item, "newConfig cannot be null"));
+                incoming.add(null);
+                continue;
+            }
+            if (item.getScheduledTime() == null) {
+                results.add(BatchItemResult.rejected(item, "scheduledTime cannot be null"));
+                incoming.add(null);
+                continue;
+            }
+            String safeSystemName = SystemNameUtils.sanitize(item.getSystemName() != null ? item.getSystemName() : "");
+            ScheduledConfigUpdateEntity entity = new ScheduledConfigUpdateEntity(
+                safeSystemName, jsonToString(item.getNewConfig()), item.getScheduledTime(), item.getComment());
+            entity.setScenarioId(item.getScenarioId());
+            entity.setGroupId(item.getGroupId());
+            entity.setRunId(item.getRunId());
+            incoming.add(new PendingUpdate(entity, item.getNewConfig(), true));
+            results.add(null);
+            systemNames.add(safeSystemName);
+            if (from == null || item.getScheduledTime().isBefore(from)) {
+                from = item.getScheduledTime();
+            }
+            if (to == null || item.getScheduledTime().isAfter(to)) {
+                to = item.getScheduledTime();
+            }
+        }
+
+        // Все не примененные обновления, с которыми могут совпасть элементы пачки - одним запросом
+        Map<String, List<PendingUpdate>> pendingByKey = new HashMap<>();
+        if (!systemNames.isEmpty()) {
+            for (ScheduledConfigUpdateEntity existing : repository.findPendingBySystemNamesAndTimeRange(systemNames, from, to)) {
+                pendingByKey.computeIfAbsent(batchKey(existing), k -> new ArrayList<>())
+                    .add(new PendingUpdate(existing, parseOrNull(existing.getNewConfigJson()), false));
+            }
+        }
+
+        List<ScheduledConfigUpdateEntity> toInsert = new ArrayList<>();
+        Map<String, ScheduledConfigUpdateEntity> toUpdate = new HashMap<>();
+        for (int i = 0; i < incoming.size(); i++) {
+            PendingUpdate update = incoming.get(i);
+            if (update == null) {
+                continue;
+            }
+            ScheduledConfigUpdateEntity entity = update.entity;
+            List<PendingUpdate> candidates = pendingByKey.computeIfAbsent(batchKey(entity), k -> new ArrayList<>());
+            PendingUpdate duplicate = null;
+            for (PendingUpdate candidate : candidates) {
+                if (candidate.sameConfig(update)) {
+                    duplicate = candidate;
+                    break;
+                }
+            }
+            if (duplicate != null) {
+                // Найден дубликат (в базе или ранее в этой же пачке) - объединяем комментарии
+                duplicate.entity.setComment(mergeComments(duplicate.entity.getComment(), entity.getComment()));
+                if (duplicate.entity.getScenarioId() == null && entity.getScenarioId() != null) {
+                    // Обновление, созданное вручную, становится частью сценария (как и комментарий)
+                    duplicate.entity.setScenarioId(entity.getScenarioId());
+                    duplicate.entity.setGroupId(entity.getGroupId());
+                    duplicate.entity.setRunId(entity.getRunId());
+                }
+                if (!duplicate.created) {
+                    toUpdate.put(duplicate.entity.getId(), duplicate.entity);
+                }
+                results.set(i, BatchItemResult.of(BatchItemStatus.MERGED, duplicate.entity));
+            } else {
+                candidates.add(update);
+                toInsert.add(entity);
+                results.set(i, BatchItemResult.of(BatchItemStatus.CREATED, entity));
+            }
+        }
+
+        batchRepository.insertAll(toInsert);
+        if (!toUpdate.isEmpty()) {
+            repository.saveAll(toUpdate.values());
+        }
+        Map<String, LocalDateTime> scheduledTimeById = new HashMap<>();
+        for (ScheduledConfigUpdateEntity entity : toInsert) {
+            timer.schedule(entity.getId(), entity.getScheduledTime());
+            scheduledTimeById.put(entity.getId(), entity.getScheduledTime());
+        }
+        // Таймеры других реплик: обновление применит владелец партиции системы
+        clusterSync.notifyUpdatesScheduled(scheduledTimeById);
+        logger.info("Scheduled batch of {} updates: {} created, {} merged into existing",
+            items.size(), toInsert.size(), toUpdate.size());
+        return results;
+    }
+
+    private String batchKey(ScheduledConfigUpdateEntity entity) {
+        return entity.getSystemName() + "@" + entity.getScheduledTime();
+    }
+
+    private JsonNode parseOrNull(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Сравнивает два JSON конфига (строковых представления) на равенство
      */
@@ -115,10 +290,8 @@ public class ScheduledConfigService {
         try {
             JsonNode node1 = objectMapper.readTree(json1);
             JsonNode node2 = objectMapper.readTree(json2);
-            // Нормализуем JSON для корректного сравнения
-            String normalized1 = objectMapper.writeValueAsString(node1);
-            String normalized2 = objectMapper.writeValueAsString(node2);
-            return normalized1.equals(normalized2);
+            // Сравниваем по структурному digest (не зависит от порядка ключей)
+            return JsonDigest.equals(node1, JsonDigest.of(node1), node2, JsonDigest.of(node2));
         } catch (Exception e) {
             // Если не удалось распарсить - сравниваем как строки
             return json1.equals(json2);
@@ -211,19 +384,63 @@ public class ScheduledConfigService {
                     return;
                 }
                 repository.deleteById(updateId);
+                timer.cancel(updateId);
                 logger.info("Cancelled scheduled update {}", updateId);
             }
         }
     }
 
-    @Scheduled(fixedRate = 10000) // Проверка каждые 10 секунд
+    /**
+     * Срабатывание таймера в точное время обновления
+     */
+    @EventListener
+    @Transactional
+    public void onScheduledUpdatesDue(ScheduledUpdatesDueEvent event) {
+        logger.debug("Timer fired for updates scheduled at {}", event.getScheduledTime());
+        checkAndApplyScheduledUpdates();
+    }
+
+    /**
+     * Реплика получила партиции другой реплики: их наступившие обновления применяются сразу
+     */
+    @EventListener
+    @Transactional
+    public void onPartitionsAcquired(SchedulerPartitionsAcquiredEvent event) {
+        logger.debug("Scheduler partitions {} acquired, applying due updates", event.getPartitions());
+        checkAndApplyScheduledUpdates();
+    }
+
+    /**
+     * Применяет все наступившие обновления партиций этой реплики. Основной запуск - по таймеру (onScheduledUpdatesDue),
+     * редкий периодический опрос оставлен как страховка (например, если задача таймера упала).
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.fallback-poll-ms:60000}")
     @Transactional
     public void checkAndApplyScheduledUpdates() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ScheduledConfigUpdateEntity> dueUpdates = repository.findDueUpdates(now);
+        long start = System.nanoTime();
+        try {
+            int applied = applyDueUpdates(LocalDateTime.now());
+            if (applied > 0) {
+                // Считаем только закоммиченные применения
+                TransactionUtils.afterCommit(() -> appliedCounter.increment(applied));
+            }
+        } finally {
+            tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return количество примененных обновлений (дубликаты на одно время считаются одним)
+     */
+    private int applyDueUpdates(LocalDateTime now) {
+        Set<Integer> ownedPartitions = leaseManager.getOwnedPartitions();
+        if (ownedPartitions.isEmpty()) {
+            return 0; // Все партиции у других реплик (или аренда еще не получена)
+        }
+        List<ScheduledConfigUpdateEntity> dueUpdates = repository.findDueUpdates(now, leaseManager.getPartitions(), ownedPartitions);
         
         if (dueUpdates.isEmpty()) {
-            return; // Нет обновлений для применения
+            return 0; // Нет обновлений для применения
         }
         
         logger.debug("Found {} scheduled updates to apply", dueUpdates.size());
@@ -238,6 +455,7 @@ public class ScheduledConfigService {
         }
 
         // Применяем обновления в порядке scheduledTime (который сохраняется благодаря LinkedHashMap)
+        int applied = 0;
         for (java.util.Map.Entry<String, List<ScheduledConfigUpdateEntity>> entry : updatesByKey.entrySet()) {
             List<ScheduledConfigUpdateEntity> updates = entry.getValue();
             
@@ -285,10 +503,13 @@ public class ScheduledConfigService {
                     if (e.getId() != null) {
                         e.setApplied(true);
                         e.setAppliedAt(now);
+                        e.setLagMs(Duration.between(e.getScheduledTime(), now).toMillis());
                         repository.save(e);
+                        recordLag(e);
                         logger.debug("Marked scheduled update {} as applied", e.getId());
                     }
                 }
+                applied++;
             } catch (Exception e) {
                 String updateId = update.getId() != null ? update.getId() : "unknown";
                 String systemName = update.getSystemName() != null ? update.getSystemName() : "unknown";
@@ -296,6 +517,20 @@ public class ScheduledConfigService {
                     updateId, systemName, e);
             }
         }
+        return applied;
+    }
+
+    /**
+     * Опоздание применения в гистограмму по системе (после коммита). ID сценария в теги не попадает:
+     * каждый новый сценарий создавал бы новую серию метрик; опоздание по сценариям считает SchedulerLagService
+     */
+    private void recordLag(ScheduledConfigUpdateEntity entity) {
+        long lagMs = Math.max(0, entity.getLagMs());
+        Timer lagTimer = Timer.builder("mockcontroller.scheduler.lag")
+            .description("Delay between scheduled and actual application time of config updates")
+            .tag("system", entity.getSystemName())
+            .register(meterRegistry);
+        TransactionUtils.afterCommit(() -> lagTimer.record(lagMs, TimeUnit.MILLISECONDS));
     }
 
     @Transactional
@@ -311,6 +546,7 @@ public class ScheduledConfigService {
             Boolean applied = entity.getApplied();
             if (applied == null || !applied) {
                 repository.deleteById(entity.getId());
+                timer.cancel(entity.getId());
                 logger.debug("Deleted non-applied scheduled update {} for {}", entity.getId(), safeSystemName);
             }
         }
@@ -330,14 +566,105 @@ public class ScheduledConfigService {
     public static java.time.format.DateTimeFormatter getDateTimeFormatter() {
         return DateTimeUtils.DATE_TIME_FORMATTER;
     }
-    
+
     /**
-     * Получает все обновления, связанные со сценариями, для истории (включая примененные)
+     * Обновление из пачки или из базы вместе с распарсенным конфигом и его digest
      */
-    public List<ScheduledConfigUpdate> getAllScenarioUpdates() {
-        return repository.findAllScenarioUpdates().stream()
-                .map(mapper::toModel)
-                .collect(Collectors.toList());
+    private static final class PendingUpdate {
+        private final ScheduledConfigUpdateEntity entity;
+        private final JsonNode config;
+        private final long digest;
+        // true - создается в текущей пачке, false - уже лежит в базе
+        private final boolean created;
+
+        private PendingUpdate(ScheduledConfigUpdateEntity entity, JsonNode config, boolean created) {
+            this.entity = entity;
+            this.config = config;
+            this.digest = config != null ? JsonDigest.of(config) : 0L;
+            this.created = created;
+        }
+
+        private boolean sameConfig(PendingUpdate other) {
+            if (config == null || other.config == null) {
+                // Конфиг в базе не распарсился - сравниваем как строки
+                return entity.getNewConfigJson() != null
+                    && entity.getNewConfigJson().equals(other.entity.getNewConfigJson());
+            }
+            return JsonDigest.equals(config, digest, other.config, other.digest);
+        }
+    }
+
+    public static class BatchItem {
+        private final String systemName;
+        private final JsonNode newConfig;
+        private final LocalDateTime scheduledTime;
+        private final String comment;
+        private final String scenarioId;
+        private final String groupId;
+        private final String runId;
+
+        public BatchItem(String systemName, JsonNode newConfig, LocalDateTime scheduledTime, String comment) {
+            this(systemName, newConfig, scheduledTime, comment, null, null, null);
+        }
+
+        public BatchItem(String systemName, JsonNode newConfig, LocalDateTime scheduledTime, String comment,
+                         String scenarioId, String groupId, String runId) {
+            this.systemName = systemName;
+            this.newConfig = newConfig;
+            this.scheduledTime = scheduledTime;
+            this.comment = comment;
+            this.scenarioId = scenarioId;
+            this.groupId = groupId;
+            this.runId = runId;
+        }
+
+        public String getSystemName() { return systemName; }
+        public JsonNode getNewConfig() { return newConfig; }
+        public LocalDateTime getScheduledTime() { return scheduledTime; }
+        public String getComment() { return comment; }
+        public String getScenarioId() { return scenarioId; }
+        public String getGroupId() { return groupId; }
+        public String getRunId() { return runId; }
+    }
+
+    public enum BatchItemStatus {
+        // Создано новое запланированное обновление
+        CREATED,
+        // Совпало с уже запланированным обновлением (та же система, время и конфиг) - объединены комментарии
+        MERGED,
+        // Элемент не прошел проверку и не запланирован
+        REJECTED
+    }
+
+    public static class BatchItemResult {
+        private final BatchItemStatus status;
+        private final String updateId;
+        private final String systemName;
+        private final LocalDateTime scheduledTime;
+        private final String message;
+
+        public BatchItemResult(BatchItemStatus status, String updateId, String systemName,
+                               LocalDateTime scheduledTime, String message) {
+            this.status = status;
+            this.updateId = updateId;
+            this.systemName = systemName;
+            this.scheduledTime = scheduledTime;
+            this.message = message;
+        }
+
+        static BatchItemResult of(BatchItemStatus status, ScheduledConfigUpdateEntity entity) {
+            return new BatchItemResult(status, entity.getId(), entity.getSystemName(), entity.getScheduledTime(), null);
+        }
+
+        static BatchItemResult rejected(BatchItem item, String message) {
+            return new BatchItemResult(BatchItemStatus.REJECTED, null, item.getSystemName(), item.getScheduledTime(), message);
+        }
+
+        public BatchItemStatus getStatus() { return status; }
+        public String getUpdateId() { return updateId; }
+        public String getSystemName() { return systemName; }
+        public LocalDateTime getScheduledTime() { return scheduledTime; }
+        public String getMessage() { return message; }
     }
 }
 
@@ -0,0 +1,122 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.util.TransactionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * In-memory таймер запланированных обновлений.
+ * Для каждого момента времени ставится одна задача в TaskScheduler (очередь с приоритетом по времени),
+ * которая в точное время публикует ScheduledUpdatesDueEvent. Обновления с одинаковым временем
+ * объединяются в один запуск. База остается долговременным журналом и не опрашивается, пока ничего не наступило.
+ */
+@Component
+public class ScheduledUpdateTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledUpdateTimer.class);
+
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Доступ к картам только под монитором this
+    private final Map<LocalDateTime, TimerSlot> slots = new HashMap<>();
+    private final Map<String, LocalDateTime> timeById = new HashMap<>();
+
+    public ScheduledUpdateTimer(TaskScheduler taskScheduler, ApplicationEventPublisher eventPublisher) {
+        this.taskScheduler = taskScheduler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Ставит обновление на таймер после коммита текущей транзакции
+     * (иначе таймер может сработать раньше, чем запись станет видна в базе)
+     */
+    public void schedule(String updateId, LocalDateTime scheduledTime) {
+        if (updateId == null || scheduledTime == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> add(updateId, scheduledTime));
+    }
+
+    public void cancel(String updateId) {
+        if (updateId == null) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> remove(updateId));
+    }
+
+    public synchronized int size() {
+        return timeById.size();
+    }
+
+    private synchronized void add(String updateId, LocalDateTime scheduledTime) {
+        LocalDateTime existing = timeById.get(updateId);
+        if (scheduledTime.equals(existing)) {
+            return;
+        }
+        if (existing != null) {
+            remove(updateId);
+        }
+        TimerSlot slot = slots.get(scheduledTime);
+        if (slot == null) {
+            ScheduledFuture<?> future = taskScheduler.schedule(
+                () -> fire(scheduledTime),
+                scheduledTime.atZone(ZoneId.systemDefault()).toInstant());
+            slot = new TimerSlot(future);
+            slots.put(scheduledTime, slot);
+        }
+        slot.updateIds.add(updateId);
+        timeById.put(updateId, scheduledTime);
+    }
+
+    private synchronized void remove(String updateId) {
+        LocalDateTime scheduledTime = timeById.remove(updateId);
+        if (scheduledTime == null) {
+            return;
+        }
+        TimerSlot slot = slots.get(scheduledTime);
+        if (slot != null) {
+            slot.updateIds.remove(updateId);
+            if (slot.updateIds.isEmpty()) {
+                slot.future.cancel(false);
+                slots.remove(scheduledTime);
+            }
+        }
+    }
+
+    private void fire(LocalDateTime scheduledTime) {
+        synchronized (this) {
+            TimerSlot slot = slots.remove(scheduledTime);
+            if (slot == null) {
+                return;
+            }
+            slot.updateIds.forEach(timeById::remove);
+        }
+        try {
+            eventPublisher.publishEvent(new ScheduledUpdatesDueEvent(scheduledTime));
+        } catch (Exception e) {
+            // Не примененные обновления подхватит резервный опрос в ScheduledConfigService
+            logger.error("Failed to apply scheduled updates due at {}", scheduledTime, e);
+        }
+    }
+
+    private static final class TimerSlot {
+        private final ScheduledFuture<?> future;
+        private final Set<String> updateIds = new HashSet<>();
+
+        private TimerSlot(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+    }
+}
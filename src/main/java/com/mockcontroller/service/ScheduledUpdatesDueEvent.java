@@ -0,0 +1,19 @@
+package com.mockcontroller.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие таймера: наступило время запланированных обновлений
+ */
+public class ScheduledUpdatesDueEvent {
+
+    private final LocalDateTime scheduledTime;
+
+    public ScheduledUpdatesDueEvent(LocalDateTime scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+}
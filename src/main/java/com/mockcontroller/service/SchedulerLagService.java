@@ -0,0 +1,189 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import com.mockcontroller.repository.ScheduledConfigUpdateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Отчет об опоздании применения запланированных обновлений (applied_at - scheduled_time):
+ * перцентили по системам и сценариям и список обновлений, примененных позже SLO.
+ * Опоздание записывается в lag_ms в момент применения (ScheduledConfigService).
+ */
+@Service
+public class SchedulerLagService {
+
+    // Максимум опоздавших обновлений в отчете
+    private static final int LATE_UPDATES_LIMIT = 100;
+
+    private final ScheduledConfigUpdateRepository repository;
+    private final ScenarioService scenarioService;
+
+    @Value("${app.scheduler.lag-slo-ms:1000}")
+    private long lagSloMs;
+
+    public SchedulerLagService(ScheduledConfigUpdateRepository repository, ScenarioService scenarioService) {
+        this.repository = repository;
+        this.scenarioService = scenarioService;
+    }
+
+    public long getLagSloMs() {
+        return lagSloMs;
+    }
+
+    public boolean isLate(Long lagMs) {
+        return lagMs != null && lagMs > lagSloMs;
+    }
+
+    /**
+     * @param groupId ID группы или null - все группы
+     * @param runId ID запуска сценария или null - все запуски
+     * @param hours за сколько последних часов учитывать примененные обновления
+     */
+    @Transactional(readOnly = true)
+    public LagReport getReport(String groupId, String runId, int hours) {
+        if (hours <= 0) {
+            throw new IllegalArgumentException("hours must be positive");
+        }
+        LocalDateTime from = LocalDateTime.now().minusHours(hours);
+        String group = groupId != null && !groupId.isEmpty() ? groupId : null;
+        String run = runId != null && !runId.isEmpty() ? runId : null;
+
+        List<LagStats> bySystem = new ArrayList<>();
+        for (Object[] row : repository.lagStatsBySystem(from, group, run, lagSloMs)) {
+            bySystem.add(toStats(row, (String) row[0]));
+        }
+
+        List<Object[]> scenarioRows = repository.lagStatsByScenario(from, group, run, lagSloMs);
+        Set<String> scenarioIds = new HashSet<>();
+        for (Object[] row : scenarioRows) {
+            scenarioIds.add((String) row[0]);
+        }
+        Map<String, String> scenarioNames = scenarioService.findNamesByIds(scenarioIds);
+        List<LagStats> byScenario = new ArrayList<>();
+        for (Object[] row : scenarioRows) {
+            String scenarioId = (String) row[0];
+            byScenario.add(toStats(row, scenarioNames.getOrDefault(scenarioId, scenarioId)));
+        }
+
+        List<LateUpdate> lateUpdates = new ArrayList<>();
+        for (ScheduledConfigUpdateEntity entity : repository.findLateUpdates(from, group, run, lagSloMs,
+                PageRequest.of(0, LATE_UPDATES_LIMIT))) {
+            lateUpdates.add(new LateUpdate(entity.getId(), entity.getSystemName(),
+                entity.getScenarioId() != null ? scenarioNames.getOrDefault(entity.getScenarioId(), entity.getScenarioId()) : null,
+                entity.getRunId(), entity.getScheduledTime(), entity.getAppliedAt(), entity.getLagMs()));
+        }
+
+        long total = bySystem.stream().mapToLong(LagStats::getCount).sum();
+        long late = bySystem.stream().mapToLong(LagStats::getLateCount).sum();
+        return new LagReport(lagSloMs, from, total, late, bySystem, byScenario, lateUpdates);
+    }
+
+    private static LagStats toStats(Object[] row, String name) {
+        return new LagStats(name,
+            ((Number) row[1]).longValue(),
+            ((Number) row[2]).longValue(),
+            ((Number) row[3]).longValue(),
+            ((Number) row[4]).longValue(),
+            ((Number) row[5]).longValue(),
+            ((Number) row[6]).longValue());
+    }
+
+    public static class LagReport {
+        private final long sloMs;
+        private final LocalDateTime from;
+        private final long appliedCount;
+        private final long lateCount;
+        private final List<LagStats> bySystem;
+        private final List<LagStats> byScenario;
+        private final List<LateUpdate> lateUpdates;
+
+        public LagReport(long sloMs, LocalDateTime from, long appliedCount, long lateCount,
+                         List<LagStats> bySystem, List<LagStats> byScenario, List<LateUpdate> lateUpdates) {
+            this.sloMs = sloMs;
+            this.from = from;
+            this.appliedCount = appliedCount;
+            this.lateCount = lateCount;
+            this.bySystem = bySystem;
+            this.byScenario = byScenario;
+            this.lateUpdates = lateUpdates;
+        }
+
+        public long getSloMs() { return sloMs; }
+        public LocalDateTime getFrom() { return from; }
+        public long getAppliedCount() { return appliedCount; }
+        public long getLateCount() { return lateCount; }
+        public List<LagStats> getBySystem() { return bySystem; }
+        public List<LagStats> getByScenario() { return byScenario; }
+        public List<LateUpdate> getLateUpdates() { return lateUpdates; }
+    }
+
+    /**
+     * Опоздание по одной системе или сценарию, в миллисекундах
+     */
+    public static class LagStats {
+        private final String name;
+        private final long count;
+        private final long p50Ms;
+        private final long p95Ms;
+        private final long p99Ms;
+        private final long maxMs;
+        private final long lateCount;
+
+        public LagStats(String name, long count, long p50Ms, long p95Ms, long p99Ms, long maxMs, long lateCount) {
+            this.name = name;
+            this.count = count;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+            this.lateCount = lateCount;
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count; }
+        public long getP50Ms() { return p50Ms; }
+        public long getP95Ms() { return p95Ms; }
+        public long getP99Ms() { return p99Ms; }
+        public long getMaxMs() { return maxMs; }
+        public long getLateCount() { return lateCount; }
+    }
+
+    public static class LateUpdate {
+        private final String updateId;
+        private final String systemName;
+        private final String scenarioName;
+        private final String runId;
+        private final LocalDateTime scheduledTime;
+        private final LocalDateTime appliedAt;
+        private final long lagMs;
+
+        public LateUpdate(String updateId, String systemName, String scenarioName, String runId,
+                          LocalDateTime scheduledTime, LocalDateTime appliedAt, long lagMs) {
+            this.updateId = updateId;
+            this.systemName = systemName;
+            this.scenarioName = scenarioName;
+            this.runId = runId;
+            this.scheduledTime = scheduledTime;
+            this.appliedAt = appliedAt;
+            this.lagMs = lagMs;
+        }
+
+        public String getUpdateId() { return updateId; }
+        public String getSystemName() { return systemName; }
+        public String getScenarioName() { return scenarioName; }
+        public String getRunId() { return runId; }
+        public LocalDateTime getScheduledTime() { return scheduledTime; }
+        public LocalDateTime getAppliedAt() { return appliedAt; }
+        public long getLagMs() { return lagMs; }
+    }
+}
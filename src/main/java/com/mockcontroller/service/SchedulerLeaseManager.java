@@ -0,0 +1,115 @@
+package com.mockcontroller.service;
+
+import com.mockcontroller.repository.SchedulerLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Распределение запланированных обновлений между репликами контроллера.
+ * Системы разбиты на app.scheduler.partitions партиций по hash(system_name); каждая реплика арендует
+ * примерно равную долю партиций в таблице scheduler_leases и применяет обновления только своих партиций.
+ * Аренда продлевается heartbeat-ом; если реплика перестала продлевать (упала), ее партиции
+ * после истечения аренды забирают остальные.
+ */
+@Service
+public class SchedulerLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLeaseManager.class);
+
+    private final SchedulerLeaseRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+
+    @Value("${app.scheduler.partitions:16}")
+    private int partitions;
+
+    @Value("${app.scheduler.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    private volatile Set<Integer> ownedPartitions = Collections.emptySet();
+    private boolean partitionsCreated;
+
+    public SchedulerLeaseManager(SchedulerLeaseRepository repository, ApplicationEventPublisher eventPublisher,
+                                 ClusterCacheSync clusterSync) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = clusterSync.getNodeId();
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Партиции, обновления которых применяет эта реплика
+     */
+    public Set<Integer> getOwnedPartitions() {
+        return ownedPartitions;
+    }
+
+    /**
+     * Продление аренд и выравнивание доли партиций: у каждой реплики не больше ceil(partitions / живых реплик).
+     * Лишние партиции отдаются сразу, недостающие забираются из свободных и просроченных.
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.lease-heartbeat-ms:5000}")
+    public void heartbeat() {
+        try {
+            if (!partitionsCreated) {
+                repository.ensurePartitions(partitions);
+                partitionsCreated = true;
+            }
+            int liveNodes = repository.heartbeatNode(nodeId, leaseTtlMs);
+            int fairShare = (partitions + liveNodes - 1) / liveNodes;
+
+            Set<Integer> owned = repository.renew(nodeId, leaseTtlMs, partitions);
+            Set<Integer> lost = new HashSet<>(ownedPartitions);
+            lost.removeAll(owned);
+            if (!lost.isEmpty()) {
+                logger.warn("Scheduler partitions {} were taken over by another replica", lost);
+            }
+            Set<Integer> acquired = Collections.emptySet();
+            if (owned.size() > fairShare) {
+                List<Integer> surplus = new ArrayList<>(owned).subList(0, owned.size() - fairShare);
+                repository.release(nodeId, surplus);
+                surplus.forEach(owned::remove);
+                logger.info("Released scheduler partitions {} ({} live replicas)", surplus, liveNodes);
+            } else if (owned.size() < fairShare) {
+                acquired = repository.claim(nodeId, leaseTtlMs, partitions, fairShare - owned.size());
+                owned.addAll(acquired);
+            }
+
+            ownedPartitions = Collections.unmodifiableSet(owned);
+            if (!acquired.isEmpty()) {
+                logger.info("Acquired scheduler partitions {} ({} owned, {} live replicas)", acquired, owned.size(), liveNodes);
+                eventPublisher.publishEvent(new SchedulerPartitionsAcquiredEvent(acquired));
+            }
+        } catch (RuntimeException e) {
+            // Не продленные аренды истекут сами; до тех пор обновления этих партиций защищены блокировкой строк
+            logger.error("Scheduler lease heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Штатная остановка: партиции отдаются сразу, остальные реплики заберут их на ближайшем heartbeat
+     */
+    @PreDestroy
+    public void releaseAll() {
+        ownedPartitions = Collections.emptySet();
+        try {
+            repository.releaseAll(nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release scheduler partitions on shutdown: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.mockcontroller.service;
+
+import java.util.Set;
+
+/**
+ * Реплика получила новые партиции планировщика (при старте или после падения другой реплики):
+ * наступившие обновления этих партиций нужно применить сразу, не дожидаясь таймера
+ */
+public class SchedulerPartitionsAcquiredEvent {
+
+    private final Set<Integer> partitions;
+
+    public SchedulerPartitionsAcquiredEvent(Set<Integer> partitions) {
+        this.partitions = partitions;
+    }
+
+    public Set<Integer> getPartitions() {
+        return partitions;
+    }
+}
@@ -0,0 +1,136 @@
+package com.mockcontroller.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Канонический структурный хэш JSON конфигов.
+ * Не зависит от порядка ключей в объектах, поэтому два конфига с одинаковым содержимым
+ * дают одинаковый digest. Используется для сравнения конфигов без сериализации в строку.
+ */
+public final class JsonDigest {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private JsonDigest() {
+        // Утилитный класс - запрещаем создание экземпляров
+    }
+
+    /**
+     * Вычисляет digest конфига. null считается пустым объектом - так он сохраняется в базе.
+     *
+     * @param node JSON конфиг
+     * @return 64-битный digest
+     */
+    public static long of(JsonNode node) {
+        long hash = FNV_OFFSET;
+        if (node == null) {
+            hash = mix(hash, 'o');
+            hash = mix(hash, 0);
+        } else {
+            hash = update(hash, node);
+        }
+        return finish(hash);
+    }
+
+    /**
+     * Сравнивает конфиги: при разных digest - сразу false,
+     * при совпадении - структурное сравнение деревьев (защита от коллизий).
+     */
+    public static boolean equals(JsonNode left, long leftDigest, JsonNode right, long rightDigest) {
+        if (leftDigest != rightDigest) {
+            return false;
+        }
+        if (left == null || right == null) {
+            return true;
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * Представление digest для передачи по API (hex, без потери точности в JavaScript-клиентах)
+     */
+    public static String toHex(long digest) {
+        return Long.toHexString(digest);
+    }
+
+    /**
+     * @return digest или null, если строка пустая или не является hex-числом
+     */
+    public static Long parseHex(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseUnsignedLong(value.trim(), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long update(long hash, JsonNode node) {
+        if (node.isObject()) {
+            String[] keys = new String[node.size()];
+            Iterator<String> names = node.fieldNames();
+            int i = 0;
+            while (names.hasNext()) {
+                keys[i++] = names.next();
+            }
+            Arrays.sort(keys);
+            hash = mix(hash, 'o');
+            hash = mix(hash, keys.length);
+            for (String key : keys) {
+                hash = mixString(hash, key);
+                hash = update(hash, node.get(key));
+            }
+            return hash;
+        }
+        if (node.isArray()) {
+            hash = mix(hash, 'a');
+            hash = mix(hash, node.size());
+            for (JsonNode item : node) {
+                hash = update(hash, item);
+            }
+            return hash;
+        }
+        if (node.isTextual()) {
+            return mixString(mix(hash, 's'), node.textValue());
+        }
+        if (node.isNumber()) {
+            // Числа сравниваются по текстовому представлению, как и при сериализации
+            return mixString(mix(hash, 'n'), node.asText());
+        }
+        if (node.isBoolean()) {
+            return mix(hash, node.booleanValue() ? 't' : 'f');
+        }
+        if (node.isNull() || node.isMissingNode()) {
+            return mix(hash, 'z');
+        }
+        return mixString(mix(hash, 'x'), node.toString());
+    }
+
+    private static long mixString(long hash, String value) {
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    private static long finish(long hash) {
+        // Финальное перемешивание (fmix64 из MurmurHash3) для лучшего распределения битов
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
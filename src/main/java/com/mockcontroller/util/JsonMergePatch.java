@@ -0,0 +1,119 @@
+package com.mockcontroller.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7386) для конфигов: разница между версиями и объединение цепочки разниц.
+ * Merge patch не умеет выражать явное значение null (null означает удаление ключа) и замену
+ * объекта целиком - в таких случаях методы возвращают null, и вызывающий код отдает полный конфиг.
+ */
+public final class JsonMergePatch {
+
+    private JsonMergePatch() {
+        // Утилитный класс - запрещаем создание экземпляров
+    }
+
+    /**
+     * Строит патч, который превращает source в target
+     *
+     * @return патч (пустой объект - изменений нет) или null, если разницу нельзя выразить merge patch
+     */
+    public static ObjectNode diff(JsonNode source, JsonNode target) {
+        if (source == null || target == null || !source.isObject() || !target.isObject()) {
+            return null;
+        }
+        return diffObjects(source, target);
+    }
+
+    /**
+     * Объединяет два последовательных патча в один: применение результата равно
+     * применению first, а затем second
+     *
+     * @return объединенный патч или null, если объединение нельзя выразить одним merge patch
+     */
+    public static ObjectNode compose(JsonNode first, JsonNode second) {
+        if (first == null || second == null || !first.isObject() || !second.isObject()) {
+            return null;
+        }
+        ObjectNode result = ((ObjectNode) first).deepCopy();
+        Iterator<Map.Entry<String, JsonNode>> fields = second.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode previous = result.get(field.getKey());
+            JsonNode next = field.getValue();
+            if (next.isObject() && previous != null) {
+                // Объект поверх удаленного или скалярного значения - это замена целиком, merge patch ее не выражает
+                if (!previous.isObject()) {
+                    return null;
+                }
+                ObjectNode composed = compose(previous, next);
+                if (composed == null) {
+                    return null;
+                }
+                result.set(field.getKey(), composed);
+            } else {
+                result.set(field.getKey(), next);
+            }
+        }
+        return result;
+    }
+
+    private static ObjectNode diffObjects(JsonNode source, JsonNode target) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode sourceValue = source.get(field.getKey());
+            JsonNode targetValue = field.getValue();
+            if (sourceValue != null && sourceValue.equals(targetValue)) {
+                continue;
+            }
+            if (targetValue.isNull()) {
+                return null;
+            }
+            if (targetValue.isObject() && sourceValue != null && sourceValue.isObject()) {
+                ObjectNode child = diffObjects(sourceValue, targetValue);
+                if (child == null) {
+                    return null;
+                }
+                if (child.size() > 0) {
+                    patch.set(field.getKey(), child);
+                }
+            } else {
+                if (containsNullMember(targetValue)) {
+                    return null;
+                }
+                patch.set(field.getKey(), targetValue);
+            }
+        }
+        Iterator<String> sourceNames = source.fieldNames();
+        while (sourceNames.hasNext()) {
+            String name = sourceNames.next();
+            if (!target.has(name)) {
+                patch.putNull(name);
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * null в полях объекта при применении патча превратился бы в удаление.
+     * Массивы заменяются целиком, поэтому их содержимое не проверяется.
+     */
+    private static boolean containsNullMember(JsonNode node) {
+        if (!node.isObject()) {
+            return false;
+        }
+        for (JsonNode child : node) {
+            if (child.isNull() || containsNullMember(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mockcontroller.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Утилиты для работы с транзакциями
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+        // Утилитный класс - запрещаем создание экземпляров
+    }
+
+    /**
+     * Выполняет действие после коммита текущей транзакции или сразу, если транзакции нет.
+     * Используется для in-memory структур, которые не должны видеть данные откатившейся транзакции.
+     *
+     * @param action действие
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mockcontroller.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypedConfigTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parsesAllSections() throws Exception {
+        TypedConfig config = TypedConfig.of(json("{\"delays\":{\"login\":\"2000\",\"check\":100},"
+                + "\"stringParams\":{\"mode\":\"fast\"},\"intParams\":{\"limit\":-5},"
+                + "\"booleanVariables\":{\"enabled\":\"TRUE\",\"debug\":false},\"loggingLv\":\"INFO\"}"));
+
+        TypedConfig.IntSection delays = config.getDelays();
+        assertEquals(2, delays.size());
+        assertEquals(2000, delays.value(delays.indexOf("login")));
+        assertEquals(100, delays.value(delays.indexOf("check")));
+        assertTrue(delays.indexOf("missing") < 0);
+        assertEquals("fast", config.getStringParams().value(config.getStringParams().indexOf("mode")));
+        assertEquals(-5, config.getIntParams().value(config.getIntParams().indexOf("limit")));
+        TypedConfig.BooleanSection booleans = config.getBooleanVariables();
+        assertTrue(booleans.value(booleans.indexOf("enabled")));
+        assertFalse(booleans.value(booleans.indexOf("debug")));
+        assertEquals("INFO", config.getLoggingLv());
+    }
+
+    @Test
+    void keysAreSorted() throws Exception {
+        TypedConfig config = TypedConfig.of(json("{\"delays\":{\"b\":1,\"c\":2,\"a\":3}}"));
+
+        assertEquals("a", config.getDelays().key(0));
+        assertEquals("b", config.getDelays().key(1));
+        assertEquals("c", config.getDelays().key(2));
+    }
+
+    @Test
+    void equalityIgnoresKeyOrderAndNumbersStoredAsStrings() throws Exception {
+        TypedConfig left = TypedConfig.of(json("{\"delays\":{\"a\":2000,\"b\":1},\"booleanVariables\":{\"x\":true}}"));
+        TypedConfig right = TypedConfig.of(json("{\"booleanVariables\":{\"x\":\"true\"},\"delays\":{\"b\":\"1\",\"a\":\"2000\"}}"));
+
+        assertEquals(left, right);
+        assertEquals(left.hashCode(), right.hashCode());
+        assertNotEquals(left, TypedConfig.of(json("{\"delays\":{\"a\":2001,\"b\":1},\"booleanVariables\":{\"x\":true}}")));
+    }
+
+    @Test
+    void strictParsingRejectsInvalidValues() {
+        IllegalArgumentException notNumber = assertThrows(IllegalArgumentException.class,
+                () -> TypedConfig.of(json("{\"delays\":{\"a\":\"abc\"}}")));
+        assertEquals("Значение задержки 'a' должно быть целым числом", notNumber.getMessage());
+
+        IllegalArgumentException negative = assertThrows(IllegalArgumentException.class,
+                () -> TypedConfig.of(json("{\"delays\":{\"a\":-1}}")));
+        assertEquals("Значение задержки 'a' должно быть неотрицательным числом", negative.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> TypedConfig.of(json("{\"intParams\":{\"a\":1.5}}")));
+        assertThrows(IllegalArgumentException.class, () -> TypedConfig.of(json("{\"booleanVariables\":{\"a\":\"yes\"}}")));
+        assertThrows(IllegalArgumentException.class, () -> TypedConfig.of(json("{\"booleanVariables\":{\"a\":1}}")));
+    }
+
+    @Test
+    void lenientParsingSkipsInvalidValues() throws Exception {
+        TypedConfig config = TypedConfig.lenient(json("{\"delays\":{\"a\":\"abc\",\"b\":-1,\"c\":5},"
+                + "\"intParams\":{\"d\":1.5,\"e\":7},\"booleanVariables\":{\"f\":\"yes\",\"g\":true}}"));
+
+        assertEquals(1, config.getDelays().size());
+        assertEquals("c", config.getDelays().key(0));
+        assertEquals(1, config.getIntParams().size());
+        assertEquals("e", config.getIntParams().key(0));
+        assertEquals(1, config.getBooleanVariables().size());
+        assertEquals("g", config.getBooleanVariables().key(0));
+    }
+
+    @Test
+    void missingOrNonObjectConfigIsEmpty() throws Exception {
+        assertSame(TypedConfig.EMPTY, TypedConfig.of(null));
+        assertSame(TypedConfig.EMPTY, TypedConfig.lenient(json("[1,2]")));
+        assertEquals(TypedConfig.EMPTY, TypedConfig.of(json("{}")));
+        assertNull(TypedConfig.of(json("{}")).getLoggingLv());
+    }
+
+    private JsonNode json(String value) throws Exception {
+        return objectMapper.readTree(value);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mockcontroller.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL аренд планировщика на настоящем PostgreSQL (SKIP LOCKED, now(), массивы).
+ * Таблицы создает Hibernate по сущностям; каждый вызов репозитория коммитится сам, как в SchedulerLeaseManager.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SchedulerLeaseRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class SchedulerLeaseRepositoryTest {
+
+    private static final int PARTITIONS = 4;
+    private static final long TTL_MS = 60_000;
+    private static final String NODE_A = "node-a";
+    private static final String NODE_B = "node-b";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM scheduler_leases");
+        jdbcTemplate.update("DELETE FROM scheduler_nodes");
+        leaseRepository.ensurePartitions(PARTITIONS);
+    }
+
+    @Test
+    void ensurePartitionsCreatesFreeRowsOnce() {
+        leaseRepository.ensurePartitions(PARTITIONS);
+
+        List<String> owners = jdbcTemplate.queryForList("SELECT owner FROM scheduler_leases", String.class);
+        assertEquals(PARTITIONS, owners.size());
+        assertTrue(owners.stream().allMatch(owner -> owner == null));
+    }
+
+    @Test
+    void claimTakesFreePartitionsUpToLimit() {
+        assertEquals(Set.of(0, 1), leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 2));
+        assertEquals(Set.of(2, 3), leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 10));
+        // Все партиции заняты действующими арендами
+        assertEquals(Set.of(), leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 10));
+    }
+
+    @Test
+    void claimIgnoresPartitionsBeyondCount() {
+        // Строки остались от конфигурации с большим числом партиций
+        leaseRepository.ensurePartitions(8);
+
+        assertEquals(Set.of(0, 1, 2, 3), leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 10));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverByAnotherNode() {
+        // Нулевой TTL - аренда истекает сразу (expires_at <= now())
+        assertEquals(Set.of(0, 1, 2, 3), leaseRepository.claim(NODE_A, 0, PARTITIONS, 10));
+
+        assertEquals(Set.of(0, 1, 2, 3), leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 10));
+        assertEquals(Set.of(), leaseRepository.renew(NODE_A, TTL_MS, PARTITIONS));
+    }
+
+    @Test
+    void renewReturnsOwnedPartitions() {
+        leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 2);
+        leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 2);
+
+        assertEquals(Set.of(0, 1), leaseRepository.renew(NODE_A, TTL_MS, PARTITIONS));
+        assertEquals(Set.of(2, 3), leaseRepository.renew(NODE_B, TTL_MS, PARTITIONS));
+    }
+
+    @Test
+    void releasedPartitionsCanBeClaimedImmediately() {
+        leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 10);
+
+        leaseRepository.release(NODE_A, List.of(1, 2));
+
+        assertEquals(Set.of(1, 2), leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 10));
+        assertEquals(Set.of(0, 3), leaseRepository.renew(NODE_A, TTL_MS, PARTITIONS));
+    }
+
+    @Test
+    void releaseDoesNotTouchOtherOwners() {
+        leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 2);
+        leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 2);
+
+        leaseRepository.release(NODE_A, List.of(2, 3));
+
+        assertEquals(Set.of(2, 3), leaseRepository.renew(NODE_B, TTL_MS, PARTITIONS));
+    }
+
+    @Test
+    void heartbeatCountsOnlyLiveNodes() {
+        assertEquals(1, leaseRepository.heartbeatNode(NODE_A, TTL_MS));
+        assertEquals(2, leaseRepository.heartbeatNode(NODE_B, TTL_MS));
+
+        // Heartbeat реплики A истек
+        leaseRepository.heartbeatNode(NODE_A, 0);
+        assertEquals(1, leaseRepository.heartbeatNode(NODE_B, TTL_MS));
+    }
+
+    @Test
+    void releaseAllFreesPartitionsAndRemovesNode() {
+        leaseRepository.heartbeatNode(NODE_A, TTL_MS);
+        leaseRepository.heartbeatNode(NODE_B, TTL_MS);
+        leaseRepository.claim(NODE_A, TTL_MS, PARTITIONS, 10);
+
+        leaseRepository.releaseAll(NODE_A);
+
+        assertEquals(Set.of(0, 1, 2, 3), leaseRepository.claim(NODE_B, TTL_MS, PARTITIONS, 10));
+        assertEquals(1, leaseRepository.heartbeatNode(NODE_B, TTL_MS));
+    }
+}
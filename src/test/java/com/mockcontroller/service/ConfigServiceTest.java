@@ -0,0 +1,126 @@
+package com.mockcontroller.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.StoredConfigBatchRepository;
+import com.mockcontroller.repository.StoredConfigRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Запись версии конфига через compare-and-set (writeWithRetry): повтор на свежей строке
+ * при конкурентной записи и отказ при устаревшей версии If-Match
+ */
+class ConfigServiceTest {
+
+    private static final String SYSTEM = "auth-mock";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StoredConfigRepository repository;
+    private ConfigVersionLog versionLog;
+    private ConfigService configService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(StoredConfigRepository.class);
+        versionLog = mock(ConfigVersionLog.class);
+        configService = new ConfigService(objectMapper, repository, mock(ConfigMapper.class),
+                mock(GroupService.class), mock(ConfigCache.class), mock(ApplicationEventPublisher.class),
+                versionLog, mock(StoredConfigBatchRepository.class), mock(ClusterCacheSync.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(configService, "writeAttempts", 3);
+    }
+
+    @Test
+    void concurrentWriteIsRetriedOnFreshRow() {
+        // Между чтением v1 и записью другой запрос записал v2
+        when(repository.findBySystemName(anyString())).thenReturn(Optional.of(row(1)), Optional.of(row(2)));
+        when(repository.compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(0, 1);
+
+        configService.updateCurrentConfig(SYSTEM, json("{\"delays\":{\"login\":200}}"));
+
+        verify(repository).compareAndSetVersion(eq(SYSTEM), eq(1), any(), any(), any(), any(), any());
+        verify(repository).compareAndSetVersion(eq(SYSTEM), eq(2), any(), any(), any(), any(), any());
+        // В журнал попадает только записанная версия
+        verify(versionLog).append(eq(SYSTEM), eq(3), any(), any());
+    }
+
+    @Test
+    void retriesStopAfterWriteAttempts() {
+        when(repository.findBySystemName(anyString())).thenReturn(Optional.of(row(1)));
+        when(repository.compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> configService.updateCurrentConfig(SYSTEM, json("{\"delays\":{\"login\":200}}")));
+
+        verify(repository, times(3)).compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any());
+        verify(versionLog, never()).append(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void staleExpectedVersionIsRejectedWithoutWrite() {
+        when(repository.findBySystemName(anyString())).thenReturn(Optional.of(row(2)));
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> configService.updateCurrentConfig(SYSTEM, json("{\"delays\":{\"login\":200}}"), 1));
+
+        verify(repository, never()).compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void expectedVersionIsNotRetriedAfterConcurrentWrite() {
+        // If-Match совпал при чтении, но другой запрос успел записать раньше
+        when(repository.findBySystemName(anyString())).thenReturn(Optional.of(row(1)));
+        when(repository.compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> configService.updateCurrentConfig(SYSTEM, json("{\"delays\":{\"login\":200}}"), 1));
+
+        verify(repository, times(1)).compareAndSetVersion(anyString(), anyInt(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void missingConfigIsRejected() {
+        when(repository.findBySystemName(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> configService.updateCurrentConfig(SYSTEM, json("{\"delays\":{\"login\":200}}")));
+    }
+
+    private StoredConfigEntity row(int version) {
+        StoredConfigEntity entity = new StoredConfigEntity(SYSTEM, "{\"delays\":{\"login\":100}}",
+                "{\"delays\":{\"login\":100}}", Instant.now());
+        entity.setVersion(version);
+        return entity;
+    }
+
+    private JsonNode json(String value) {
+        try {
+            return objectMapper.readTree(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mockcontroller.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mockcontroller.model.entity.ConfigVersionEntity;
+import com.mockcontroller.repository.ConfigVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfigVersionLogTest {
+
+    private static final String SYSTEM = "auth-mock";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Журнал в памяти вместо таблицы config_versions
+    private final List<ConfigVersionEntity> rows = new ArrayList<>();
+    private ConfigVersionLog versionLog;
+
+    @BeforeEach
+    void setUp() {
+        ConfigVersionRepository repository = mock(ConfigVersionRepository.class);
+        when(repository.save(any(ConfigVersionEntity.class))).thenAnswer(invocation -> {
+            ConfigVersionEntity entity = invocation.getArgument(0);
+            rows.add(entity);
+            return entity;
+        });
+        when(repository.findBySystemNameAndVersionBetweenOrderByVersionAsc(anyString(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String systemName = invocation.getArgument(0);
+                    int from = invocation.getArgument(1);
+                    int to = invocation.getArgument(2);
+                    return rows.stream()
+                            .filter(row -> row.getSystemName().equals(systemName))
+                            .filter(row -> row.getVersion() >= from && row.getVersion() <= to)
+                            .collect(Collectors.toList());
+                });
+        versionLog = new ConfigVersionLog(repository, objectMapper, 16);
+        ReflectionTestUtils.setField(versionLog, "maxChain", 3);
+    }
+
+    @Test
+    void firstVersionIsStoredAsFullSnapshot() throws Exception {
+        versionLog.append(SYSTEM, 1, null, json("{\"delays\":{\"a\":1}}"));
+
+        assertTrue(rows.get(0).isFullSnapshot());
+        assertEquals(json("{\"delays\":{\"a\":1}}"), json(rows.get(0).getPatchJson()));
+    }
+
+    @Test
+    void deltaComposesPatchesOfTheChain() throws Exception {
+        JsonNode v1 = json("{\"delays\":{\"a\":1,\"b\":2},\"loggingLv\":\"INFO\"}");
+        JsonNode v2 = json("{\"delays\":{\"a\":5,\"b\":2},\"loggingLv\":\"INFO\"}");
+        JsonNode v3 = json("{\"delays\":{\"a\":5},\"loggingLv\":\"DEBUG\"}");
+        versionLog.append(SYSTEM, 1, null, v1);
+        versionLog.append(SYSTEM, 2, v1, v2);
+        versionLog.append(SYSTEM, 3, v2, v3);
+
+        assertFalse(rows.get(1).isFullSnapshot());
+        assertEquals(Optional.of(json("{\"delays\":{\"a\":5}}")), versionLog.findDelta(SYSTEM, 1, 2));
+        assertEquals(Optional.of(json("{\"delays\":{\"a\":5,\"b\":null},\"loggingLv\":\"DEBUG\"}")),
+                versionLog.findDelta(SYSTEM, 1, 3));
+    }
+
+    @Test
+    void noDeltaAcrossFullSnapshot() throws Exception {
+        JsonNode v1 = json("{\"a\":1}");
+        JsonNode v2 = json("{\"a\":null}");
+        versionLog.append(SYSTEM, 1, null, v1);
+        // Явный null не выражается merge patch - версия сохраняется полным конфигом
+        versionLog.append(SYSTEM, 2, v1, v2);
+
+        assertTrue(rows.get(1).isFullSnapshot());
+        assertEquals(Optional.empty(), versionLog.findDelta(SYSTEM, 1, 2));
+    }
+
+    @Test
+    void noDeltaWhenChainHasGaps() throws Exception {
+        JsonNode v1 = json("{\"a\":1}");
+        JsonNode v3 = json("{\"a\":3}");
+        versionLog.append(SYSTEM, 1, null, v1);
+        versionLog.append(SYSTEM, 3, json("{\"a\":2}"), v3);
+
+        assertEquals(Optional.empty(), versionLog.findDelta(SYSTEM, 1, 3));
+    }
+
+    @Test
+    void noDeltaForChainLongerThanLimitOrWrongRange() throws Exception {
+        JsonNode previous = json("{\"a\":1}");
+        versionLog.append(SYSTEM, 1, null, previous);
+        for (int version = 2; version <= 5; version++) {
+            JsonNode next = json("{\"a\":" + version + "}");
+            versionLog.append(SYSTEM, version, previous, next);
+            previous = next;
+        }
+
+        assertEquals(Optional.empty(), versionLog.findDelta(SYSTEM, 1, 5));
+        assertEquals(Optional.of(json("{\"a\":5}")), versionLog.findDelta(SYSTEM, 2, 5));
+        assertEquals(Optional.empty(), versionLog.findDelta(SYSTEM, 3, 3));
+        assertEquals(Optional.empty(), versionLog.findDelta(SYSTEM, 0, 2));
+    }
+
+    private JsonNode json(String value) throws Exception {
+        return objectMapper.readTree(value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mockcontroller.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mockcontroller.model.entity.ScheduledConfigUpdateEntity;
+import com.mockcontroller.model.entity.StoredConfigEntity;
+import com.mockcontroller.repository.ScheduledConfigUpdateRepository;
+import com.mockcontroller.repository.StoredConfigRepository;
+import com.mockcontroller.util.JsonDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тик планировщика на настоящем PostgreSQL: несколько наступивших обновлений применяются
+ * в одной транзакции, каждое записывает свою версию конфига и помечается примененным.
+ * Резервный опрос отодвинут, чтобы строки теста применил только тик, вызванный из теста.
+ */
+@SpringBootTest(properties = "app.scheduler.fallback-poll-ms=3600000")
+@Testcontainers(disabledWithoutDocker = true)
+class ScheduledConfigServiceTest {
+
+    private static final String AUTH = "auth-mock";
+    private static final String PAYMENT = "payment-mock";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Через spring.datasource.*, а не @ServiceConnection: ClusterCacheSync открывает соединение LISTEN по DataSourceProperties
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ScheduledConfigService scheduledConfigService;
+
+    @Autowired
+    private SchedulerLeaseManager leaseManager;
+
+    @Autowired
+    private ScheduledConfigUpdateRepository scheduledRepository;
+
+    @Autowired
+    private StoredConfigRepository configRepository;
+
+    @Autowired
+    private ConfigCache configCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scheduledRepository.deleteAll();
+        configRepository.deleteAll();
+        configCache.evict(AUTH);
+        configCache.evict(PAYMENT);
+        configRepository.save(config(AUTH, "{\"delays\":{\"login\":100}}"));
+        configRepository.save(config(PAYMENT, "{\"delays\":{\"pay\":100}}"));
+        // Единственная реплика забирает все партиции
+        leaseManager.heartbeat();
+    }
+
+    @Test
+    void tickAppliesSeveralDueUpdatesInOneTransaction() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        // Строки пишутся в базу напрямую, минуя in-memory таймер
+        List<ScheduledConfigUpdateEntity> updates = scheduledRepository.saveAll(List.of(
+                new ScheduledConfigUpdateEntity(AUTH, "{\"delays\":{\"login\":200}}", now.minusMinutes(2)),
+                new ScheduledConfigUpdateEntity(AUTH, "{\"delays\":{\"login\":300}}", now.minusMinutes(1)),
+                new ScheduledConfigUpdateEntity(PAYMENT, "{\"delays\":{\"pay\":500}}", now.minusMinutes(1))));
+
+        scheduledConfigService.checkAndApplyScheduledUpdates();
+
+        for (ScheduledConfigUpdateEntity update : updates) {
+            ScheduledConfigUpdateEntity stored = scheduledRepository.findById(update.getId()).orElseThrow();
+            assertTrue(stored.getApplied(), "update " + update.getId() + " must be marked applied");
+            assertNotNull(stored.getAppliedAt());
+        }
+        // Два обновления одной системы - две версии подряд, последним применено более позднее
+        StoredConfigEntity auth = configRepository.findBySystemName(AUTH).orElseThrow();
+        assertEquals(3, auth.getVersion());
+        assertEquals(objectMapper.readTree("{\"delays\":{\"login\":300}}"), objectMapper.readTree(auth.getCurrentConfigJson()));
+        StoredConfigEntity payment = configRepository.findBySystemName(PAYMENT).orElseThrow();
+        assertEquals(2, payment.getVersion());
+        assertEquals(objectMapper.readTree("{\"delays\":{\"pay\":500}}"), objectMapper.readTree(payment.getCurrentConfigJson()));
+    }
+
+    @Test
+    void futureUpdatesAreLeftPending() {
+        ScheduledConfigUpdateEntity future = scheduledRepository.save(
+                new ScheduledConfigUpdateEntity(AUTH, "{\"delays\":{\"login\":200}}", LocalDateTime.now().plusHours(1)));
+
+        scheduledConfigService.checkAndApplyScheduledUpdates();
+
+        assertEquals(Boolean.FALSE, scheduledRepository.findById(future.getId()).orElseThrow().getApplied());
+        assertEquals(1, configRepository.findBySystemName(AUTH).orElseThrow().getVersion());
+    }
+
+    private StoredConfigEntity config(String systemName, String json) throws Exception {
+        StoredConfigEntity entity = new StoredConfigEntity(systemName, json, json, Instant.now());
+        long digest = JsonDigest.of(objectMapper.readTree(json));
+        entity.setStartConfigDigest(digest);
+        entity.setCurrentConfigDigest(digest);
+        return entity;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mockcontroller.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonDigestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void digestDoesNotDependOnKeyOrder() throws Exception {
+        JsonNode left = objectMapper.readTree("{\"delays\":{\"a\":1,\"b\":2},\"loggingLv\":\"INFO\"}");
+        JsonNode right = objectMapper.readTree("{\"loggingLv\":\"INFO\",\"delays\":{\"b\":2,\"a\":1}}");
+
+        assertEquals(JsonDigest.of(left), JsonDigest.of(right));
+        assertTrue(JsonDigest.equals(left, JsonDigest.of(left), right, JsonDigest.of(right)));
+    }
+
+    @Test
+    void differentValuesGiveDifferentDigests() throws Exception {
+        JsonNode left = objectMapper.readTree("{\"delays\":{\"a\":1}}");
+        JsonNode right = objectMapper.readTree("{\"delays\":{\"a\":2}}");
+
+        assertNotEquals(JsonDigest.of(left), JsonDigest.of(right));
+        assertFalse(JsonDigest.equals(left, JsonDigest.of(left), right, JsonDigest.of(right)));
+    }
+
+    @Test
+    void numberAndStringWithSameTextAreDifferent() throws Exception {
+        JsonNode number = objectMapper.readTree("{\"delays\":{\"a\":2000}}");
+        JsonNode text = objectMapper.readTree("{\"delays\":{\"a\":\"2000\"}}");
+
+        assertNotEquals(JsonDigest.of(number), JsonDigest.of(text));
+    }
+
+    @Test
+    void arrayOrderMatters() throws Exception {
+        JsonNode left = objectMapper.readTree("{\"list\":[1,2]}");
+        JsonNode right = objectMapper.readTree("{\"list\":[2,1]}");
+
+        assertNotEquals(JsonDigest.of(left), JsonDigest.of(right));
+    }
+
+    @Test
+    void nullIsDigestedAsEmptyObject() throws Exception {
+        JsonNode empty = objectMapper.readTree("{}");
+
+        assertEquals(JsonDigest.of(empty), JsonDigest.of(null));
+        assertTrue(JsonDigest.equals(null, JsonDigest.of(null), empty, JsonDigest.of(empty)));
+    }
+
+    @Test
+    void equalDigestsOfDifferentTreesAreNotEqual() throws Exception {
+        // Коллизия digest не должна приводить к равенству: деревья сравниваются структурно
+        JsonNode left = objectMapper.readTree("{\"a\":1}");
+        JsonNode right = objectMapper.readTree("{\"a\":2}");
+
+        assertFalse(JsonDigest.equals(left, 42L, right, 42L));
+    }
+
+    @Test
+    void hexRoundTripKeepsAllBits() {
+        long digest = 0xF123456789ABCDEFL;
+
+        assertEquals(digest, JsonDigest.parseHex(JsonDigest.toHex(digest)));
+        assertNull(JsonDigest.parseHex("not-hex"));
+        assertNull(JsonDigest.parseHex(" "));
+    }
+}
@@ -0,0 +1,107 @@
+package com.mockcontroller.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void diffContainsOnlyChangedAddedAndRemovedKeys() throws Exception {
+        JsonNode source = json("{\"delays\":{\"a\":1,\"b\":2},\"stringParams\":{\"s\":\"x\"},\"loggingLv\":\"INFO\"}");
+        JsonNode target = json("{\"delays\":{\"a\":1,\"b\":3,\"c\":4},\"loggingLv\":\"INFO\"}");
+
+        ObjectNode patch = JsonMergePatch.diff(source, target);
+
+        assertEquals(json("{\"delays\":{\"b\":3,\"c\":4},\"stringParams\":null}"), patch);
+        assertEquals(target, apply(source, patch));
+    }
+
+    @Test
+    void diffOfEqualConfigsIsEmpty() throws Exception {
+        JsonNode config = json("{\"delays\":{\"a\":1}}");
+
+        assertTrue(JsonMergePatch.diff(config, config.deepCopy()).isEmpty());
+    }
+
+    @Test
+    void arraysAreReplacedWhole() throws Exception {
+        JsonNode source = json("{\"list\":[1,2,3]}");
+        JsonNode target = json("{\"list\":[1,2]}");
+
+        ObjectNode patch = JsonMergePatch.diff(source, target);
+
+        assertEquals(json("{\"list\":[1,2]}"), patch);
+        assertEquals(target, apply(source, patch));
+    }
+
+    @Test
+    void explicitNullCannotBeExpressed() throws Exception {
+        assertNull(JsonMergePatch.diff(json("{\"a\":1}"), json("{\"a\":null}")));
+        assertNull(JsonMergePatch.diff(json("{\"a\":1}"), json("{\"a\":{\"b\":null}}")));
+    }
+
+    @Test
+    void nonObjectConfigsCannotBeDiffed() throws Exception {
+        assertNull(JsonMergePatch.diff(null, json("{}")));
+        assertNull(JsonMergePatch.diff(json("[1]"), json("{}")));
+    }
+
+    @Test
+    void composeEqualsApplyingPatchesInOrder() throws Exception {
+        JsonNode v1 = json("{\"delays\":{\"a\":1,\"b\":2},\"stringParams\":{\"s\":\"x\"}}");
+        JsonNode v2 = json("{\"delays\":{\"a\":5,\"b\":2},\"stringParams\":{\"s\":\"x\"}}");
+        JsonNode v3 = json("{\"delays\":{\"a\":5},\"stringParams\":{\"s\":\"z\",\"t\":\"y\"},\"loggingLv\":\"DEBUG\"}");
+
+        ObjectNode first = JsonMergePatch.diff(v1, v2);
+        ObjectNode second = JsonMergePatch.diff(v2, v3);
+        ObjectNode composed = JsonMergePatch.compose(first, second);
+
+        assertEquals(v3, apply(v1, composed));
+    }
+
+    @Test
+    void composeRejectsObjectOverRemovedValue() throws Exception {
+        // Первый патч удаляет объект, второй создает его заново - это замена целиком
+        ObjectNode first = (ObjectNode) json("{\"stringParams\":null}");
+        ObjectNode second = (ObjectNode) json("{\"stringParams\":{\"t\":\"y\"}}");
+
+        assertNull(JsonMergePatch.compose(first, second));
+    }
+
+    private JsonNode json(String value) throws Exception {
+        return objectMapper.readTree(value);
+    }
+
+    /**
+     * Применение merge patch по RFC 7386 - так его применяет заглушка
+     */
+    private static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : new ObjectMapper().createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+}